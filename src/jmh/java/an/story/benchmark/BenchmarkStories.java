@@ -0,0 +1,42 @@
+package an.story.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import an.story.testdata.SyntheticStoryGenerator;
+
+/**
+ * Story texts the benchmarks run against, from the bundled sample up to
+ * thousands of requirements and scenarios, plus a pathological shape with
+ * long And-chains, deep continuation lines and a large skipped panel
+ */
+public enum BenchmarkStories {
+    SMALL(null),
+    MEDIUM(SyntheticStoryGenerator.builder().requirements(50).scenarios(20)),
+    LARGE(SyntheticStoryGenerator.builder().requirements(2_000).scenarios(1_000).services(40).events(64)),
+    PATHOLOGICAL(SyntheticStoryGenerator.builder().requirements(200).scenarios(50)
+        .andChain(20).continuationLines(50).notesBytes(1 << 20));
+
+    private final SyntheticStoryGenerator.Builder generator;
+
+    BenchmarkStories(SyntheticStoryGenerator.Builder generator) {
+        this.generator = generator;
+    }
+
+    public String text() {
+        return generator == null ? sample() : generator.build().story(0);
+    }
+
+    private static String sample() {
+        try (InputStream in = BenchmarkStories.class.getResourceAsStream("/sample-jira.story")) {
+            if (in == null) {
+                throw new IllegalStateException("sample-jira.story is not on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package an.story.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import an.story.domain_model.JiraStory;
+import an.story.gherkin_generator.GherkinTestGenerator;
+import an.story.gherkin_generator.model.TestPackage;
+import an.story.parser.JiraStoryParser;
+
+/**
+ * Generating the feature file and step definitions for a parsed story
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE", "PATHOLOGICAL"})
+    public BenchmarkStories size;
+
+    private final GherkinTestGenerator generator = new GherkinTestGenerator();
+    private JiraStory story;
+    private final StringBuilder out = new StringBuilder();
+
+    @Setup
+    public void setUp() {
+        story = new JiraStoryParser().parse(size.text());
+    }
+
+    @Benchmark
+    public String featureFile() {
+        return generator.generateFeatureFileFromStory(story);
+    }
+
+    /**
+     * Streaming into a reused buffer: no per-call String or intermediate copies
+     */
+    @Benchmark
+    public int featureFileStreamed() throws IOException {
+        out.setLength(0);
+        generator.writeFeatureFile(story, out);
+        return out.length();
+    }
+
+    @Benchmark
+    public String stepDefinitions() {
+        return generator.generateStepDefinitions(story, "an.story.generated");
+    }
+
+    @Benchmark
+    public TestPackage completeTestPackage() {
+        return generator.generateCompleteTestPackage(story, "an.story.generated");
+    }
+}
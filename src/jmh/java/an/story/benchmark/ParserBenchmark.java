@@ -0,0 +1,73 @@
+package an.story.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import an.story.domain_model.JiraStory;
+import an.story.domain_model.ServiceTopology;
+import an.story.parser.JiraStoryParser;
+
+/**
+ * Parsing a story and extracting its topology
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE", "PATHOLOGICAL"})
+    public BenchmarkStories size;
+
+    private final JiraStoryParser parser = new JiraStoryParser();
+    private String text;
+    private JiraStory story;
+
+    @Setup
+    public void setUp() {
+        text = size.text();
+        story = parser.parse(text);
+    }
+
+    @Benchmark
+    public JiraStory parse() {
+        return parser.parse(text);
+    }
+
+    /**
+     * Full parse of fresh requirements followed by entity extraction and aggregation
+     */
+    @Benchmark
+    public ServiceTopology parseAndExtractTopology() {
+        return parser.extractTopology(parser.parse(text));
+    }
+
+    /**
+     * Aggregation over requirements whose entities are already extracted
+     */
+    @Benchmark
+    public ServiceTopology extractTopology() {
+        return parser.extractTopology(story);
+    }
+
+    /**
+     * Requirements panel only, skipping value statement and scenarios
+     */
+    @Benchmark
+    public ServiceTopology parseTopology() {
+        return parser.parseTopology(text);
+    }
+}
@@ -0,0 +1,49 @@
+package an.story.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import an.story.domain_model.Requirement;
+
+/**
+ * Building a requirement and extracting its services, events and schemas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequirementBenchmark {
+
+    @Param({
+        "keep an audit log of every rejected application",
+        "update the \"data cleanse\" service to validate the applicant's age and produce an error",
+        "update the avro schema for the \"aoaApplicantDataCleansedErrored\" event published by the \"data cleanse\" service"
+    })
+    public String text;
+
+    @Benchmark
+    public Requirement construct() {
+        return new Requirement(1, text);
+    }
+
+    @Benchmark
+    public void constructAndExtract(Blackhole blackhole) {
+        Requirement requirement = new Requirement(1, text);
+        blackhole.consume(requirement.getServices());
+        blackhole.consume(requirement.getEvents());
+        blackhole.consume(requirement.getSchemas());
+    }
+}
@@ -0,0 +1,57 @@
+package an.story.benchmark;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import an.story.domain_model.JiraStory;
+import an.story.domain_model.Requirement;
+import an.story.parser.JiraStoryParser;
+import an.story.testdata.SyntheticStoryGenerator;
+
+/**
+ * Retained heap per parsed story, walked with JOL. Reports each benchmark
+ * story shape on its own and a corpus of synthetic stories, where interned
+ * names are counted once across the corpus. Both are measured straight after
+ * parsing and again once every requirement's entities have been extracted.
+ *
+ * Run with an optional corpus size (default 1000):
+ *   java -cp target/benchmarks.jar an.story.benchmark.StoryFootprint 5000
+ */
+public final class StoryFootprint {
+
+    private StoryFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int corpusSize = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        JiraStoryParser parser = new JiraStoryParser();
+
+        System.out.printf("%-14s %14s %14s%n", "story", "parsed (B)", "extracted (B)");
+        for (BenchmarkStories shape : BenchmarkStories.values()) {
+            JiraStory story = parser.parse(shape.text());
+            long parsed = GraphLayout.parseInstance(story).totalSize();
+            extract(List.of(story));
+            long extracted = GraphLayout.parseInstance(story).totalSize();
+            System.out.printf("%-14s %14d %14d%n", shape, parsed, extracted);
+        }
+
+        List<JiraStory> corpus = SyntheticStoryGenerator.builder().requirements(50).scenarios(20).build()
+            .stories(corpusSize)
+            .map(parser::parse)
+            .collect(Collectors.toList());
+        long parsed = GraphLayout.parseInstance(corpus.toArray()).totalSize();
+        extract(corpus);
+        long extracted = GraphLayout.parseInstance(corpus.toArray()).totalSize();
+        System.out.printf("%-14s %14d %14d%n", "corpus/story", parsed / corpusSize, extracted / corpusSize);
+    }
+
+    private static void extract(List<JiraStory> stories) {
+        for (JiraStory story : stories) {
+            for (Requirement requirement : story.getRequirements()) {
+                requirement.getServices();
+            }
+        }
+    }
+}
@@ -1,37 +1,133 @@
 package an.story.domain_model;
 
-import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
- * Represents a Gherkin-style acceptance criterion (Scenario with Given/When/Then)
+ * Represents a Gherkin-style acceptance criterion (Scenario with Given/When/Then).
+ *
+ * Immutable. Steps are held in source order in one trimmed array with a kind
+ * tag per step. The Given/When/Then lists are derived from it on first use
+ * and cached, so repeated calls do not scan or allocate.
  */
-public class AcceptanceCriterion {
-    private String scenarioName;
+public final class AcceptanceCriterion {
+    private static final String[] NO_STEPS = new String[0];
+    private static final byte[] NO_KINDS = new byte[0];
+    private static final StepKind[] KINDS = StepKind.values();
+
+    private final String scenarioName;
+    private final String[] steps;
+    private final byte[] kinds;
     private List<String> givenStatements;
     private List<String> whenStatements;
     private List<String> thenStatements;
 
-    public AcceptanceCriterion(String scenarioName) {
+    private AcceptanceCriterion(String scenarioName, String[] steps, byte[] kinds) {
         this.scenarioName = scenarioName;
-        this.givenStatements = new ArrayList<>();
-        this.whenStatements = new ArrayList<>();
-        this.thenStatements = new ArrayList<>();
+        this.steps = steps;
+        this.kinds = kinds;
     }
 
-    public void addGiven(String statement) { givenStatements.add(statement); }
-    public void addWhen(String statement) { whenStatements.add(statement); }
-    public void addThen(String statement) { thenStatements.add(statement); }
+    public static Builder builder(String scenarioName) {
+        return new Builder(scenarioName);
+    }
 
     public String getScenarioName() { return scenarioName; }
-    public List<String> getGivenStatements() { return givenStatements; }
-    public List<String> getWhenStatements() { return whenStatements; }
-    public List<String> getThenStatements() { return thenStatements; }
+    public int getStepCount() { return steps.length; }
+    public String getStep(int index) { return steps[index]; }
+    public StepKind getStepKind(int index) { return KINDS[kinds[index]]; }
+
+    // Racy single-check caching: the lists are immutable and equal however
+    // often they are computed, so a thread seeing null just computes another.
+    public List<String> getGivenStatements() {
+        List<String> statements = givenStatements;
+        if (statements == null) {
+            givenStatements = statements = statements(StepKind.GIVEN);
+        }
+        return statements;
+    }
+
+    public List<String> getWhenStatements() {
+        List<String> statements = whenStatements;
+        if (statements == null) {
+            whenStatements = statements = statements(StepKind.WHEN);
+        }
+        return statements;
+    }
+
+    public List<String> getThenStatements() {
+        List<String> statements = thenStatements;
+        if (statements == null) {
+            thenStatements = statements = statements(StepKind.THEN);
+        }
+        return statements;
+    }
+
+    private List<String> statements(StepKind kind) {
+        int count = count(kind);
+        if (count == 0) {
+            return List.of();
+        }
+        String[] result = new String[count];
+        int next = 0;
+        for (int i = 0; i < steps.length; i++) {
+            if (kinds[i] == kind.ordinal()) {
+                result[next++] = steps[i];
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(result));
+    }
+
+    private int count(StepKind kind) {
+        int count = 0;
+        for (byte k : kinds) {
+            if (k == kind.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
 
     @Override
     public String toString() {
         return String.format("Scenario: %s [Given:%d, When:%d, Then:%d]",
-                           scenarioName, givenStatements.size(), 
-                           whenStatements.size(), thenStatements.size());
+                           scenarioName, count(StepKind.GIVEN),
+                           count(StepKind.WHEN), count(StepKind.THEN));
+    }
+
+    /**
+     * Collects steps in source order; build() trims them into the criterion
+     */
+    public static final class Builder {
+        private final String scenarioName;
+        private final List<String> steps = new ArrayList<>();
+        private byte[] kinds = new byte[8];
+
+        private Builder(String scenarioName) {
+            this.scenarioName = scenarioName;
+        }
+
+        public Builder given(String statement) { return step(StepKind.GIVEN, statement); }
+        public Builder when(String statement) { return step(StepKind.WHEN, statement); }
+        public Builder then(String statement) { return step(StepKind.THEN, statement); }
+
+        public Builder step(StepKind kind, String statement) {
+            if (steps.size() == kinds.length) {
+                kinds = Arrays.copyOf(kinds, kinds.length * 2);
+            }
+            kinds[steps.size()] = (byte) kind.ordinal();
+            steps.add(statement);
+            return this;
+        }
+
+        public AcceptanceCriterion build() {
+            if (steps.isEmpty()) {
+                return new AcceptanceCriterion(scenarioName, NO_STEPS, NO_KINDS);
+            }
+            return new AcceptanceCriterion(scenarioName, steps.toArray(NO_STEPS),
+                Arrays.copyOf(kinds, steps.size()));
+        }
     }
-}
\ No newline at end of file
+}
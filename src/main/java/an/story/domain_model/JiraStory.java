@@ -1,27 +1,46 @@
 package an.story.domain_model;
 
-import java.util.List;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Represents a parsed Jira story with all its components
+ * Represents a parsed Jira story with all its components.
+ *
+ * Immutable; the requirement and acceptance criterion lists are trimmed
+ * unmodifiable copies, shared empty lists when a panel has no entries.
  */
-public class JiraStory {
-    private ValueStatement valueStatement;
-    private List<Requirement> requirements;
-    private List<AcceptanceCriterion> acceptanceCriteria;
+public final class JiraStory {
+    private final ValueStatement valueStatement;
+    private final List<Requirement> requirements;
+    private final List<AcceptanceCriterion> acceptanceCriteria;
+    private final PanelFingerprints panelFingerprints;
 
-    public JiraStory(ValueStatement valueStatement, List<Requirement> requirements, 
+    public JiraStory(ValueStatement valueStatement, List<Requirement> requirements,
                      List<AcceptanceCriterion> acceptanceCriteria) {
+        this(valueStatement, requirements, acceptanceCriteria, null);
+    }
+
+    public JiraStory(ValueStatement valueStatement, List<Requirement> requirements,
+                     List<AcceptanceCriterion> acceptanceCriteria, PanelFingerprints panelFingerprints) {
         this.valueStatement = valueStatement;
-        this.requirements = requirements != null ? requirements : new ArrayList<>();
-        this.acceptanceCriteria = acceptanceCriteria != null ? acceptanceCriteria : new ArrayList<>();
+        this.requirements = requirements != null ? List.copyOf(requirements) : List.of();
+        this.acceptanceCriteria = acceptanceCriteria != null ? List.copyOf(acceptanceCriteria) : List.of();
+        this.panelFingerprints = panelFingerprints;
+    }
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     public ValueStatement getValueStatement() { return valueStatement; }
     public List<Requirement> getRequirements() { return requirements; }
     public List<AcceptanceCriterion> getAcceptanceCriteria() { return acceptanceCriteria; }
 
+    /**
+     * Fingerprints of the source panels, or null unless the story came from JiraStoryParser.reparse
+     */
+    public PanelFingerprints getPanelFingerprints() { return panelFingerprints; }
+
     @Override
     public String toString() {
         return "JiraStory{" +
@@ -30,4 +49,67 @@ public class JiraStory {
                 ", acceptanceCriteria=" + acceptanceCriteria.size() +
                 '}';
     }
+
+    /**
+     * Collects the parts of a story. A list set as a whole is kept as given, so
+     * an unmodifiable list from an earlier story is shared rather than copied;
+     * adding a single entry afterwards copies it first.
+     */
+    public static final class Builder {
+        private ValueStatement valueStatement;
+        private List<Requirement> requirements = List.of();
+        private List<AcceptanceCriterion> acceptanceCriteria = List.of();
+        private boolean ownRequirements;
+        private boolean ownAcceptanceCriteria;
+        private PanelFingerprints panelFingerprints;
+
+        private Builder() {
+        }
+
+        public Builder valueStatement(ValueStatement valueStatement) {
+            this.valueStatement = valueStatement;
+            return this;
+        }
+
+        public Builder requirement(Requirement requirement) {
+            if (!ownRequirements) {
+                requirements = new ArrayList<>(requirements);
+                ownRequirements = true;
+            }
+            requirements.add(requirement);
+            return this;
+        }
+
+        public Builder requirements(List<Requirement> requirements) {
+            this.requirements = requirements;
+            this.ownRequirements = false;
+            return this;
+        }
+
+        public Builder acceptanceCriterion(AcceptanceCriterion criterion) {
+            if (!ownAcceptanceCriteria) {
+                acceptanceCriteria = new ArrayList<>(acceptanceCriteria);
+                ownAcceptanceCriteria = true;
+            }
+            acceptanceCriteria.add(criterion);
+            return this;
+        }
+
+        public Builder acceptanceCriteria(List<AcceptanceCriterion> acceptanceCriteria) {
+            this.acceptanceCriteria = acceptanceCriteria;
+            this.ownAcceptanceCriteria = false;
+            return this;
+        }
+
+        public Builder panelFingerprints(PanelFingerprints panelFingerprints) {
+            this.panelFingerprints = panelFingerprints;
+            return this;
+        }
+
+        public ValueStatement getValueStatement() { return valueStatement; }
+
+        public JiraStory build() {
+            return new JiraStory(valueStatement, requirements, acceptanceCriteria, panelFingerprints);
+        }
+    }
 }
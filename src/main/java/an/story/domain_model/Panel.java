@@ -5,13 +5,27 @@ package an.story.domain_model;
  */
 public class Panel {
     private String title;
-    private String content;
+    private CharSequence content;
 
     public Panel(String title, String content) {
         this.title = title;
         this.content = content.trim();
     }
 
+    /**
+     * Create a panel over a view of the story text. The view is kept as-is, so the
+     * caller is responsible for passing already trimmed bounds.
+     */
+    public Panel(String title, CharSequence content) {
+        this.title = title;
+        this.content = content;
+    }
+
     public String getTitle() { return title; }
-    public String getContent() { return content; }
-}
\ No newline at end of file
+    public String getContent() { return content.toString(); }
+
+    /**
+     * Panel content without copying it out of the story text
+     */
+    public CharSequence getContentView() { return content; }
+}
@@ -0,0 +1,38 @@
+package an.story.domain_model;
+
+import java.util.Arrays;
+
+/**
+ * Content fingerprints of the panels a story was parsed from, used to tell
+ * which panels changed when the story is edited.
+ *
+ * Each fingerprint is a SHA-256 digest, or null for a panel the story did
+ * not have. Getters return copies.
+ */
+public class PanelFingerprints {
+    private final byte[] valueStatement;
+    private final byte[] requirements;
+    private final byte[] acceptanceCriteria;
+
+    public PanelFingerprints(byte[] valueStatement, byte[] requirements, byte[] acceptanceCriteria) {
+        this.valueStatement = copy(valueStatement);
+        this.requirements = copy(requirements);
+        this.acceptanceCriteria = copy(acceptanceCriteria);
+    }
+
+    public byte[] getValueStatement() { return copy(valueStatement); }
+    public byte[] getRequirements() { return copy(requirements); }
+    public byte[] getAcceptanceCriteria() { return copy(acceptanceCriteria); }
+
+    public boolean hasValueStatement(byte[] fingerprint) { return matches(valueStatement, fingerprint); }
+    public boolean hasRequirements(byte[] fingerprint) { return matches(requirements, fingerprint); }
+    public boolean hasAcceptanceCriteria(byte[] fingerprint) { return matches(acceptanceCriteria, fingerprint); }
+
+    private static boolean matches(byte[] recorded, byte[] fingerprint) {
+        return recorded != null && Arrays.equals(recorded, fingerprint);
+    }
+
+    private static byte[] copy(byte[] fingerprint) {
+        return fingerprint != null ? fingerprint.clone() : null;
+    }
+}
@@ -0,0 +1,156 @@
+package an.story.domain_model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Services, events and schemas mentioned in a requirement, extracted in a
+ * single pass over the text.
+ *
+ * Matches exactly what the original patterns did:
+ * <ul>
+ *   <li>service: {@code "([^"]+)"\s+service}, case-insensitive</li>
+ *   <li>event: {@code "(\w+)"\s+event}, case-sensitive</li>
+ *   <li>schema: every event name plus ".avsc" when the text mentions "avro schema" in any case</li>
+ * </ul>
+ * Every name goes through the shared SymbolTable, so requirements and the
+ * topologies built from them share one instance per distinct name, up to the
+ * table's canonical limit.
+ */
+final class RequirementEntities {
+    private static final String SERVICE = "service";
+    private static final String EVENT = "event";
+    private static final String AVRO_SCHEMA = "avro schema";
+    private static final SymbolTable SYMBOLS = SymbolTable.shared();
+
+    final List<String> services;
+    final List<String> events;
+    final List<String> schemas;
+
+    private RequirementEntities(List<String> services, List<String> events, List<String> schemas) {
+        this.services = compact(services);
+        this.events = compact(events);
+        this.schemas = compact(schemas);
+    }
+
+    static RequirementEntities extract(String text) {
+        List<String> services = new ArrayList<>();
+        List<String> events = new ArrayList<>();
+        boolean avroSchema = false;
+
+        // Like Matcher.find(), each pattern resumes after its own previous match
+        int serviceResume = 0;
+        int eventResume = 0;
+
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                if (i >= serviceResume) {
+                    int end = matchService(text, i, services);
+                    if (end >= 0) {
+                        serviceResume = end;
+                    }
+                }
+                if (i >= eventResume) {
+                    int end = matchEvent(text, i, events);
+                    if (end >= 0) {
+                        eventResume = end;
+                    }
+                }
+            } else if (!avroSchema && (c == 'a' || c == 'A')) {
+                avroSchema = regionMatchesAsciiIgnoreCase(text, i, AVRO_SCHEMA);
+            }
+        }
+
+        List<String> schemas;
+        if (avroSchema && !events.isEmpty()) {
+            schemas = new ArrayList<>(events.size());
+            for (String event : events) {
+                schemas.add(SYMBOLS.canonical(event + ".avsc"));
+            }
+        } else {
+            schemas = List.of();
+        }
+        return new RequirementEntities(services, events, schemas);
+    }
+
+    /**
+     * Trimmed unmodifiable copy; most requirements name no entity at all, and share List.of()
+     */
+    private static List<String> compact(List<String> names) {
+        return names.isEmpty() ? List.of() : List.copyOf(names);
+    }
+
+    /**
+     * Try {@code "([^"]+)"\s+service} at the opening quote; returns the match end or -1
+     */
+    private static int matchService(String text, int quote, List<String> services) {
+        int close = text.indexOf('"', quote + 1);
+        if (close <= quote + 1) {
+            return -1;
+        }
+        int keyword = skipWhitespace(text, close + 1);
+        if (keyword == close + 1 || !regionMatchesAsciiIgnoreCase(text, keyword, SERVICE)) {
+            return -1;
+        }
+        services.add(SYMBOLS.canonical(text.substring(quote + 1, close)));
+        return keyword + SERVICE.length();
+    }
+
+    /**
+     * Try {@code "(\w+)"\s+event} at the opening quote; returns the match end or -1
+     */
+    private static int matchEvent(String text, int quote, List<String> events) {
+        int close = quote + 1;
+        while (close < text.length() && isWordChar(text.charAt(close))) {
+            close++;
+        }
+        if (close == quote + 1 || close == text.length() || text.charAt(close) != '"') {
+            return -1;
+        }
+        int keyword = skipWhitespace(text, close + 1);
+        if (keyword == close + 1 || !text.startsWith(EVENT, keyword)) {
+            return -1;
+        }
+        events.add(SYMBOLS.canonical(text.substring(quote + 1, close)));
+        return keyword + EVENT.length();
+    }
+
+    private static int skipWhitespace(String text, int from) {
+        int i = from;
+        while (i < text.length() && isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /** Same set as regex \s */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** Same set as regex \w */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * ASCII-only case folding, as Pattern.CASE_INSENSITIVE does without UNICODE_CASE
+     */
+    private static boolean regionMatchesAsciiIgnoreCase(String text, int offset, String lowerTarget) {
+        if (offset + lowerTarget.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerTarget.length(); i++) {
+            char c = text.charAt(offset + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != lowerTarget.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
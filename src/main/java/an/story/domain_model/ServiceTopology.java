@@ -2,17 +2,21 @@ package an.story.domain_model;
 
 import java.util.List;
 /**
- * Represents the service topology extracted from a story
+ * Represents the service topology extracted from a story.
+ *
+ * Names come from Requirement and are the canonical SymbolTable instances
+ * while the table has room; SymbolTable.shared().intern gives their int IDs. The lists are trimmed
+ * unmodifiable copies.
  */
 public class ServiceTopology {
-    private List<String> services;
-    private List<String> events;
-    private List<String> schemas;
+    private final List<String> services;
+    private final List<String> events;
+    private final List<String> schemas;
 
     public ServiceTopology(List<String> services, List<String> events, List<String> schemas) {
-        this.services = services;
-        this.events = events;
-        this.schemas = schemas;
+        this.services = List.copyOf(services);
+        this.events = List.copyOf(events);
+        this.schemas = List.copyOf(schemas);
     }
 
     public List<String> getServices() { return services; }
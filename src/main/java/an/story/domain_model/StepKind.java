@@ -0,0 +1,18 @@
+package an.story.domain_model;
+
+/**
+ * Kind of a Gherkin step; "And" steps take the kind of the step they continue
+ */
+public enum StepKind {
+    GIVEN("Given"),
+    WHEN("When"),
+    THEN("Then");
+
+    private final String keyword;
+
+    StepKind(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public String getKeyword() { return keyword; }
+}
@@ -0,0 +1,122 @@
+package an.story.domain_model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns service, event and schema names into canonical instances with
+ * compact int IDs.
+ *
+ * Requirements resolve every extracted name through the shared table, so a
+ * corpus mentioning "data cleanse" a hundred thousand times holds one copy of
+ * the string. IDs are dense, start at 0 and never change, which makes them
+ * usable as array indexes by indexes and graphs built over the corpus.
+ *
+ * The table never forgets a name, and the shared one lives as long as the
+ * JVM, while the text it sees may come from clients of a long-running server.
+ * So canonical() only adds names up to a limit and never adds long ones;
+ * past that it returns the name it was given, which costs deduplication but
+ * not correctness. intern() always adds, for callers that keep the IDs.
+ */
+public final class SymbolTable {
+    /** Default number of names canonical() adds before it stops interning */
+    public static final int DEFAULT_CANONICAL_LIMIT = 1 << 15;
+
+    /** Longer names are never added by canonical(); real service and event names are far shorter */
+    public static final int MAX_CANONICAL_LENGTH = 128;
+
+    private static final SymbolTable SHARED = new SymbolTable();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+    private final int canonicalLimit;
+
+    public SymbolTable() {
+        this(DEFAULT_CANONICAL_LIMIT);
+    }
+
+    /**
+     * @param canonicalLimit table size past which canonical() no longer adds names
+     */
+    public SymbolTable(int canonicalLimit) {
+        if (canonicalLimit < 0) {
+            throw new IllegalArgumentException("Canonical limit cannot be negative: " + canonicalLimit);
+        }
+        this.canonicalLimit = canonicalLimit;
+    }
+
+    /**
+     * The table used by Requirement for every extracted name
+     */
+    public static SymbolTable shared() {
+        return SHARED;
+    }
+
+    /**
+     * ID of the name, adding it to the table if it is new
+     */
+    public int intern(String name) {
+        return add(name, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The shared instance equal to the given name, or the name itself if it
+     * is not in the table and the table is full or the name is too long
+     */
+    public String canonical(String name) {
+        int id = name.length() > MAX_CANONICAL_LENGTH ? idOf(name) : add(name, canonicalLimit);
+        // Read the array only after add, which may have grown it
+        return id >= 0 ? names[id] : name;
+    }
+
+    /**
+     * ID of the name, adding it unless the table already holds limit names; -1 if it is full
+     */
+    private int add(String name, int limit) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id == null) {
+                if (size >= limit) {
+                    return -1;
+                }
+                id = size;
+                if (size == names.length) {
+                    names = Arrays.copyOf(names, size * 2);
+                }
+                names[size++] = name;
+                // Published last, so a reader that sees the ID also sees the name
+                ids.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * ID of the name, or -1 if it was never interned
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Name behind an ID handed out by this table
+     */
+    public String name(int id) {
+        String[] current = names;
+        if (id < 0 || id >= current.length || current[id] == null) {
+            throw new IllegalArgumentException("Unknown symbol id: " + id);
+        }
+        return current[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
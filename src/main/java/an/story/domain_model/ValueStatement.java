@@ -5,9 +5,9 @@ package an.story.domain_model;
  * Represents the "As a... I want... so that..." value statement
  */
 public class ValueStatement {
-    private String persona;
-    private String goal;
-    private String benefit;
+    private final String persona;
+    private final String goal;
+    private final String benefit;
 
     public ValueStatement(String persona, String goal, String benefit) {
         this.persona = persona;
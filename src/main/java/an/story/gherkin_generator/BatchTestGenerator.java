@@ -0,0 +1,242 @@
+package an.story.gherkin_generator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import an.story.gherkin_generator.command.CollectUniqueStepsCommand;
+import an.story.gherkin_generator.command.StepRegistry;
+import an.story.parser.JiraStoryParser;
+import an.story.parser.ParseDiagnostic;
+import an.story.parser.StoryParseResult;
+
+/**
+ * Generates the test packages for a whole tree of .story files in parallel.
+ *
+ * Each story is one task: read, parse, then generate and write its feature
+ * file and step definitions through the TestPackageWriter. Tasks run on a
+ * fixed pool of the given parallelism behind a queue of twice that size;
+ * when the queue is full the submitting thread runs the next story itself,
+ * so only the list of story paths is held, however large the corpus. A story
+ * that fails to read, parse or write is reported and does not stop the run.
+ *
+ * Files whose content is unchanged since the last run into the same output
+ * root are left untouched. The outputs of stories no longer in the tree are
+ * removed before any story is written, freeing their packages for stories
+ * renamed into them, and the writer's manifest is saved at the end.
+ *
+ * With shared steps the run takes two passes: the first registers every
+ * story's steps in a StepRegistry and writes the shared step class, the
+ * second writes each story's package with only the steps it alone uses.
+ * The outputs of a story that fails in that mode are removed rather than
+ * kept, since its old step class may define steps now shared.
+ */
+public final class BatchTestGenerator {
+    private static final String STORY_SUFFIX = ".story";
+
+    private final JiraStoryParser parser;
+    private final TestPackageWriter writer;
+    private final int parallelism;
+    private final boolean sharedSteps;
+
+    public BatchTestGenerator(JiraStoryParser parser, TestPackageWriter writer, int parallelism) {
+        this(parser, writer, parallelism, false);
+    }
+
+    /**
+     * @param sharedSteps define steps used by more than one story once, in a shared class
+     */
+    public BatchTestGenerator(JiraStoryParser parser, TestPackageWriter writer, int parallelism,
+                              boolean sharedSteps) {
+        if (parser == null || writer == null) {
+            throw new IllegalArgumentException("Parser and writer cannot be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parser = parser;
+        this.writer = writer;
+        this.parallelism = parallelism;
+        this.sharedSteps = sharedSteps;
+    }
+
+    /**
+     * Generate the test package of every story under the root
+     */
+    public Report generate(Path storyRoot) throws IOException {
+        Path root = storyRoot.toAbsolutePath().normalize();
+        long start = System.nanoTime();
+        AtomicInteger generated = new AtomicInteger();
+        AtomicInteger filesWritten = new AtomicInteger();
+        Map<Path, String> failed = new ConcurrentHashMap<>();
+
+        List<Path> storyPaths = findStories(root);
+        StepRegistry registry = null;
+        if (sharedSteps) {
+            // First pass: learn which steps more than one story uses. Stories
+            // are parsed again below rather than held, keeping memory bounded;
+            // failures are reported by the second pass.
+            StepRegistry steps = new StepRegistry();
+            forEachStory(root, storyPaths, new ConcurrentHashMap<>(), (storyPath, storyText) ->
+                parser.tryParse(storyText).getStory().ifPresent(story ->
+                    steps.register(storyPath.toString(), new CollectUniqueStepsCommand(story).execute())));
+            steps.freeze();
+            filesWritten.addAndGet(writer.writeSharedSteps(steps).size());
+            registry = steps;
+        }
+
+        // Before any story claims its package, so a story renamed to a path
+        // mapping to the same package is not taken for a collision
+        List<Path> removed = writer.retainStories(storyPaths);
+        StepRegistry shared = registry;
+        forEachStory(root, storyPaths, failed, (storyPath, storyText) -> {
+            StoryParseResult result = parser.tryParse(storyText);
+            if (!result.isSuccess()) {
+                failed.put(storyPath, result.getDiagnostic().map(ParseDiagnostic::toString).orElse(""));
+                return;
+            }
+            filesWritten.addAndGet(writer.write(storyPath, result.getStory().orElseThrow(), shared).size());
+            generated.incrementAndGet();
+        });
+        if (registry != null) {
+            // A failed story's previous class may define steps SharedSteps now
+            // defines too, and Cucumber refuses duplicate step definitions
+            for (Path storyPath : new TreeMap<>(failed).keySet()) {
+                writer.delete(storyPath);
+            }
+        }
+        // Other stories that failed are still in the tree, so they keep their previous outputs
+        writer.saveManifest();
+        return new Report(storyPaths.size(), generated.get(), filesWritten.get(), removed.size(),
+            registry != null ? registry.getSharedSteps().size() : 0, new TreeMap<>(failed),
+            System.nanoTime() - start);
+    }
+
+    /**
+     * Work on one story, given its path relative to the story root and its text
+     */
+    private interface StoryTask {
+        void run(Path storyPath, String storyText) throws IOException;
+    }
+
+    /**
+     * The story files under the root, relative to it
+     */
+    private static List<Path> findStories(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(path -> path.getFileName().toString().endsWith(STORY_SUFFIX))
+                .filter(Files::isRegularFile)
+                .map(root::relativize)
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Read each story and run the task on it on the pool, recording stories
+     * that fail to read or whose task throws
+     */
+    private void forEachStory(Path root, List<Path> storyPaths, Map<Path, String> failed, StoryTask task)
+            throws IOException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(parallelism * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            for (Path storyPath : storyPaths) {
+                executor.execute(() -> {
+                    try {
+                        task.run(storyPath, Files.readString(root.resolve(storyPath), StandardCharsets.UTF_8));
+                    } catch (IOException | RuntimeException e) {
+                        failed.put(storyPath, String.valueOf(e.getMessage()));
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor executor) throws IOException {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // keep waiting; every task finishes on its own
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating test packages", e);
+        }
+    }
+
+    /**
+     * Outcome and throughput of one batch run
+     */
+    public static final class Report {
+        private final int stories;
+        private final int generated;
+        private final int filesWritten;
+        private final int removed;
+        private final int sharedSteps;
+        private final Map<Path, String> failed;
+        private final long elapsedNanos;
+
+        Report(int stories, int generated, int filesWritten, int removed, int sharedSteps,
+               Map<Path, String> failed, long elapsedNanos) {
+            this.stories = stories;
+            this.generated = generated;
+            this.filesWritten = filesWritten;
+            this.removed = removed;
+            this.sharedSteps = sharedSteps;
+            this.failed = Collections.unmodifiableMap(failed);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getStories() { return stories; }
+        public int getGenerated() { return generated; }
+
+        /**
+         * Files whose content changed; unchanged files are not rewritten
+         */
+        public int getFilesWritten() { return filesWritten; }
+
+        /**
+         * Stories from an earlier run that are gone, whose outputs were removed
+         */
+        public int getRemoved() { return removed; }
+
+        /**
+         * Steps defined once in the shared class; 0 unless shared steps were asked for
+         */
+        public int getSharedSteps() { return sharedSteps; }
+
+        /**
+         * Stories that could not be generated, relative to the story root, mapped to the reason
+         */
+        public Map<Path, String> getFailed() { return failed; }
+
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getStoriesPerSecond() {
+            return elapsedNanos > 0 ? stories * 1_000_000_000.0 / elapsedNanos : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d stories (%d generated, %d failed, %d removed), %d files written%s in %.3f s: "
+                + "%.1f stories/s", stories, generated, failed.size(), removed, filesWritten,
+                sharedSteps > 0 ? ", " + sharedSteps + " shared steps" : "",
+                elapsedNanos / 1_000_000_000.0, getStoriesPerSecond());
+        }
+    }
+}
@@ -4,8 +4,11 @@ import an.story.domain_model.JiraStory;
 import an.story.gherkin_generator.command.GenerateCompleteTestPackageCommand;
 import an.story.gherkin_generator.command.GenerateFeatureFileFromStoryCommand;
 import an.story.gherkin_generator.command.GenerateStepDefinitionsCommand;
+import an.story.gherkin_generator.command.GenerationContext;
 import an.story.gherkin_generator.model.TestPackage;
 
+import java.io.IOException;
+
 /**
  * Generates Gherkin feature files and step definition stubs from parsed Jira stories
  */
@@ -15,6 +18,13 @@ public class GherkinTestGenerator {
         return new GenerateFeatureFileFromStoryCommand(story).execute();
     }
     
+    /**
+     * Stream the feature file into the given Appendable, e.g. a buffered file writer
+     */
+    public void writeFeatureFile(JiraStory story, Appendable out) throws IOException {
+        new GenerateFeatureFileFromStoryCommand(story).writeTo(out);
+    }
+    
     /**
      * Generate Java step definition class that uses the static test infrastructure
      */
@@ -22,11 +32,25 @@ public class GherkinTestGenerator {
         return new GenerateStepDefinitionsCommand(story, packageName).execute();
     }
     
+    /**
+     * Stream the step definition class into the given Appendable
+     */
+    public void writeStepDefinitions(JiraStory story, String packageName, Appendable out) throws IOException {
+        new GenerateStepDefinitionsCommand(story, packageName).writeTo(out);
+    }
+    
     /**
      * Generate complete test package
      */
     public TestPackage generateCompleteTestPackage(JiraStory story, String basePackage) {
         return new GenerateCompleteTestPackageCommand(story, basePackage).execute();
     }
+    
+    /**
+     * Generate complete test package, reusing values already derived in the context
+     */
+    public TestPackage generateCompleteTestPackage(GenerationContext context, String basePackage) {
+        return new GenerateCompleteTestPackageCommand(context, basePackage).execute();
+    }
 }
 
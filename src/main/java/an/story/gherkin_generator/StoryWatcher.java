@@ -0,0 +1,357 @@
+package an.story.gherkin_generator;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import an.story.domain_model.JiraStory;
+import an.story.parser.JiraStoryParser;
+import an.story.parser.ParseDiagnostic;
+import an.story.parser.StoryParseResult;
+
+/**
+ * Keeps generated tests in step with a tree of .story files.
+ *
+ * generateAll parses every story once and writes its outputs. After that,
+ * update handles just the files that changed: each is re-parsed with
+ * JiraStoryParser.reparse against its previous version, and only its own
+ * feature file and step definitions are rewritten, or removed when the story
+ * was deleted. watch drives update from a WatchService, collecting events
+ * until the tree has been quiet for the debounce interval, so an editor's
+ * save-rename-touch burst turns into one update. Outputs whose content did
+ * not change are not rewritten, and generateAll also removes the outputs of
+ * stories deleted while nothing was watching. A story that cannot be read or
+ * written, say because it was deleted or locked mid-edit, is reported as
+ * failed and does not stop the watch.
+ *
+ * Not thread-safe; watch runs on the calling thread until close.
+ */
+public class StoryWatcher implements AutoCloseable {
+    private static final String STORY_SUFFIX = ".story";
+
+    private final Path storyRoot;
+    private final TestPackageWriter writer;
+    private final JiraStoryParser parser;
+    private final Map<Path, JiraStory> stories = new HashMap<>();
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private WatchService watchService;
+
+    public StoryWatcher(Path storyRoot, TestPackageWriter writer, JiraStoryParser parser) {
+        if (storyRoot == null || writer == null || parser == null) {
+            throw new IllegalArgumentException("Story root, writer and parser cannot be null");
+        }
+        this.storyRoot = storyRoot.toAbsolutePath().normalize();
+        this.writer = writer;
+        this.parser = parser;
+    }
+
+    /**
+     * Parse every story under the root and write all outputs, removing those
+     * of stories the writer's manifest knows but the tree no longer holds
+     */
+    public Update generateAll() throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(storyRoot)) {
+            files = walk.filter(StoryWatcher::isStoryFile).filter(Files::isRegularFile).sorted()
+                .collect(Collectors.toList());
+        }
+        List<Path> storyPaths = files.stream().map(storyRoot::relativize).collect(Collectors.toList());
+        return update(files, writer.retainStories(storyPaths));
+    }
+
+    /**
+     * Bring the outputs of the given story files up to date: changed files
+     * are re-parsed and regenerated, missing files have their outputs removed.
+     * A story that no longer parses keeps its previous outputs.
+     */
+    public Update update(Collection<Path> changedFiles) throws IOException {
+        return update(changedFiles, List.of());
+    }
+
+    private Update update(Collection<Path> changedFiles, List<Path> orphans) throws IOException {
+        long start = System.nanoTime();
+        List<Path> regenerated = new ArrayList<>();
+        List<Path> removed = new ArrayList<>(orphans);
+        Map<Path, String> failed = new LinkedHashMap<>();
+
+        // Deleted stories first, so a story renamed within one burst finds the
+        // package of its old path free
+        List<Path> ordered = new ArrayList<>(changedFiles);
+        ordered.sort(Comparator.comparing(changed -> Files.exists(storyRoot.resolve(changed))));
+        for (Path changed : ordered) {
+            Path file = storyRoot.resolve(changed).normalize();
+            if (!isStoryFile(file) || !file.startsWith(storyRoot)) {
+                continue;
+            }
+            Path storyPath = storyRoot.relativize(file);
+            try {
+                updateStory(storyPath, file, regenerated, removed, failed);
+            } catch (IOException | UncheckedIOException e) {
+                // Deleted or locked mid-edit; the next change to the file retries it
+                failed.put(storyPath, String.valueOf(e.getMessage()));
+            }
+        }
+        writer.saveManifest();
+        return new Update(regenerated, removed, failed, System.nanoTime() - start);
+    }
+
+    private void updateStory(Path storyPath, Path file, List<Path> regenerated, List<Path> removed,
+                             Map<Path, String> failed) throws IOException {
+        String storyText = Files.isRegularFile(file) ? readIfPresent(file) : null;
+        if (storyText == null) {
+            // The manifest may hold outputs of a story never parsed since startup
+            boolean known = stories.remove(storyPath) != null;
+            if (!writer.delete(storyPath).isEmpty() || known) {
+                removed.add(storyPath);
+            }
+            return;
+        }
+
+        JiraStory previous = stories.get(storyPath);
+        JiraStory story;
+        if (previous != null) {
+            try {
+                story = parser.reparse(previous, storyText);
+            } catch (IllegalArgumentException e) {
+                failed.put(storyPath, e.getMessage());
+                return;
+            }
+        } else {
+            StoryParseResult result = parser.tryParse(storyText);
+            if (!result.isSuccess()) {
+                failed.put(storyPath, result.getDiagnostic().map(ParseDiagnostic::toString).orElse(""));
+                return;
+            }
+            story = result.getStory().orElseThrow();
+        }
+        try {
+            writer.write(storyPath, story);
+        } catch (IllegalArgumentException e) {
+            failed.put(storyPath, e.getMessage());
+            return;
+        }
+        stories.put(storyPath, story);
+        regenerated.add(storyPath);
+    }
+
+    /**
+     * Watch the tree and call update for each burst of changes, reporting
+     * every update that did something to the listener. Blocks until close is
+     * called or the thread is interrupted.
+     */
+    public void watch(Duration debounce, Consumer<Update> listener) throws IOException, InterruptedException {
+        if (debounce == null || debounce.isNegative()) {
+            throw new IllegalArgumentException("Debounce interval cannot be null or negative: " + debounce);
+        }
+        watchService = storyRoot.getFileSystem().newWatchService();
+        registerTree(storyRoot);
+
+        Set<Path> pending = new LinkedHashSet<>();
+        try {
+            while (true) {
+                WatchKey key = pending.isEmpty()
+                    ? watchService.take()
+                    : watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    // Quiet for a whole debounce interval: apply the burst
+                    Update update = update(pending);
+                    pending.clear();
+                    if (!update.isEmpty()) {
+                        listener.accept(update);
+                    }
+                    continue;
+                }
+                collect(key, pending);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // close() was called
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> pending) throws IOException {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || dir == null) {
+                // Events were lost: recheck every story known or on disk
+                pending.addAll(stories.keySet());
+                addStoryFiles(storyRoot, pending);
+                continue;
+            }
+            Path changed = dir.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed)) {
+                // A new or moved-in directory: watch it and pick up what it already holds
+                registerTree(changed);
+                addStoryFiles(changed, pending);
+            } else if (event.kind() == ENTRY_DELETE && !isStoryFile(changed)) {
+                // Possibly a directory: drop the stories that lived under it
+                Path deletedDir = storyRoot.relativize(changed);
+                for (Path storyPath : stories.keySet()) {
+                    if (storyPath.startsWith(deletedDir)) {
+                        pending.add(storyPath);
+                    }
+                }
+            } else {
+                pending.add(changed);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    /**
+     * Watch the directory and every directory under it. Only a failure to
+     * watch the story root itself is thrown; a subdirectory that vanishes or
+     * cannot be read mid-walk is skipped, as its stories are seen when it
+     * reappears.
+     */
+    private void registerTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                try {
+                    watchedDirs.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                } catch (IOException e) {
+                    if (dir.equals(storyRoot)) {
+                        throw e;
+                    }
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                if (file.equals(storyRoot)) {
+                    throw e;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Add the story files under the directory to pending. Entries that vanish
+     * or cannot be read mid-walk do not stop it; a story file among them is
+     * still added, so update records it as removed or failed.
+     */
+    private static void addStoryFiles(Path root, Set<Path> pending) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (isStoryFile(file)) {
+                    pending.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return visitFile(file, null);
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Stop watching; a blocked watch call returns
+     */
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * The file's text, or null if it was deleted before it could be read
+     */
+    private static String readIfPresent(Path file) throws IOException {
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static boolean isStoryFile(Path path) {
+        Path fileName = path.getFileName();
+        return fileName != null && fileName.toString().endsWith(STORY_SUFFIX);
+    }
+
+    /**
+     * What one call to update changed, with story paths relative to the story root
+     */
+    public static final class Update {
+        private final List<Path> regenerated;
+        private final List<Path> removed;
+        private final Map<Path, String> failed;
+        private final long elapsedNanos;
+
+        Update(List<Path> regenerated, List<Path> removed, Map<Path, String> failed, long elapsedNanos) {
+            this.regenerated = Collections.unmodifiableList(regenerated);
+            this.removed = Collections.unmodifiableList(removed);
+            this.failed = Collections.unmodifiableMap(failed);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<Path> getRegenerated() { return regenerated; }
+        public List<Path> getRemoved() { return removed; }
+
+        /**
+         * Stories that did not parse or could not be read or written, mapped to the reason
+         */
+        public Map<Path, String> getFailed() { return failed; }
+
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public boolean isEmpty() {
+            return regenerated.isEmpty() && removed.isEmpty() && failed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d regenerated, %d removed, %d failed in %.1f ms",
+                regenerated.size(), removed.size(), failed.size(), elapsedNanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package an.story.gherkin_generator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.lang.model.SourceVersion;
+
+import an.story.domain_model.JiraStory;
+import an.story.gherkin_generator.command.GenerateFeatureFileFromStoryCommand;
+import an.story.gherkin_generator.command.GenerateSharedStepsCommand;
+import an.story.gherkin_generator.command.GenerateStepDefinitionsCommand;
+import an.story.gherkin_generator.command.GenerationContext;
+import an.story.gherkin_generator.command.StepRegistry;
+import an.story.gherkin_generator.command.StreamingCommand;
+
+/**
+ * Generates the test package for a story file and streams it to disk under
+ * an output root, one directory per package.
+ *
+ * Each story gets its own Java package, the base package followed by the
+ * story's path: team/story-00042.story becomes base.team.story_00042. Its
+ * step definitions go to java/base/team/story_00042/ and its feature file to
+ * resources/base/team/story_00042/, where Cucumber finds features next to
+ * their glue. Stories whose goals start alike therefore never overwrite each
+ * other's step classes. Two story paths that map to the same package, such as
+ * Team/a-b.story and team/a_b.story, are rejected: write fails for whichever
+ * comes second until the first is deleted.
+ *
+ * Keeps a manifest of which outputs each story wrote and a hash of each
+ * output's content, saved as .generated-manifest under the output root so it
+ * survives between runs. A file whose generated content hashes the same as
+ * last time is not rewritten, leaving its timestamp alone so incremental
+ * builds only recompile what really changed; outputs of stories that no
+ * longer exist are removed with delete or retainStories. Files are written
+ * to a temporary name and moved into place, so tools watching the output
+ * never see half a file. Safe to use from several threads at once.
+ *
+ * With a StepRegistry, steps shared between stories are written once to
+ * SharedSteps in the base package and each story's class keeps only its own.
+ */
+public class TestPackageWriter {
+    static final String MANIFEST_FILE = ".generated-manifest";
+    /** Manifest owner of the shared step class; story paths always end in .story */
+    private static final Path SHARED_STEPS_OWNER = Paths.get(".shared-steps");
+
+    private final Path outputRoot;
+    private final String basePackage;
+    private final Map<Path, List<Path>> outputsByStory = new HashMap<>();
+    private final Map<Path, Path> ownerByOutput = new HashMap<>();
+    private final Map<Path, String> hashByOutput = new HashMap<>();
+    private final Map<String, Path> storyByPackage = new HashMap<>();
+    private boolean manifestLoaded;
+    private boolean manifestDirty;
+    private boolean sharedStepsWritten;
+
+    public TestPackageWriter(Path outputRoot, String basePackage) {
+        if (outputRoot == null) {
+            throw new IllegalArgumentException("Output root cannot be null");
+        }
+        if (basePackage == null || !SourceVersion.isName(basePackage)) {
+            throw new IllegalArgumentException("Base package must be a valid Java package name: " + basePackage);
+        }
+        this.outputRoot = outputRoot;
+        this.basePackage = basePackage;
+    }
+
+    public Path getOutputRoot() { return outputRoot; }
+
+    /**
+     * Package the story's outputs go in, derived from its path
+     *
+     * @param storyPath the story file relative to the story root
+     */
+    public String packageOf(Path storyPath) {
+        StringBuilder packageName = new StringBuilder(basePackage);
+        int last = storyPath.getNameCount() - 1;
+        for (int i = 0; i <= last; i++) {
+            String element = storyPath.getName(i).toString();
+            if (i == last) {
+                int dot = element.lastIndexOf('.');
+                element = dot > 0 ? element.substring(0, dot) : element;
+            }
+            packageName.append('.').append(identifier(element));
+        }
+        return packageName.toString();
+    }
+
+    /**
+     * Generate the story's feature file and step definitions and write the
+     * ones whose content changed, removing any output the story wrote before
+     * that it no longer produces.
+     *
+     * @param storyPath the story file relative to the story root
+     * @return the files written; empty when the story's outputs were already up to date
+     * @throws IllegalArgumentException if another story already writes to the same package
+     */
+    public List<Path> write(Path storyPath, JiraStory story) throws IOException {
+        return write(storyPath, story, null);
+    }
+
+    /**
+     * Like write, leaving the steps the frozen registry shares out of the story's step definitions
+     */
+    public List<Path> write(Path storyPath, JiraStory story, StepRegistry registry) throws IOException {
+        loadManifest();
+        String packageName = claimPackage(storyPath);
+        GenerationContext context = new GenerationContext(story);
+        String packagePath = packageName.replace('.', '/');
+
+        Path feature = outputRoot.resolve("resources").resolve(packagePath).resolve(featureFileName(storyPath));
+        Path steps = outputRoot.resolve("java").resolve(packagePath)
+            .resolve(context.getStepDefinitionClassName() + ".java");
+        List<Path> outputs = List.of(feature, steps);
+        List<Path> written = new ArrayList<>(2);
+        if (writeIfChanged(feature, new GenerateFeatureFileFromStoryCommand(context))) {
+            written.add(feature);
+        }
+        if (writeIfChanged(steps, new GenerateStepDefinitionsCommand(context, packageName, registry))) {
+            written.add(steps);
+        }
+        recordOutputs(storyPath, outputs, !written.isEmpty());
+        return written;
+    }
+
+    /**
+     * The story's package, unless a different story already maps to it
+     */
+    private synchronized String claimPackage(Path storyPath) {
+        String packageName = packageOf(storyPath);
+        Path claimant = storyByPackage.putIfAbsent(packageName, storyPath);
+        if (claimant != null && !claimant.equals(storyPath)) {
+            throw new IllegalArgumentException("Stories " + portable(claimant) + " and " + portable(storyPath)
+                + " both map to package " + packageName);
+        }
+        return packageName;
+    }
+
+    /**
+     * Write the class defining the steps the frozen registry shares, in the base package
+     *
+     * @return the files written; empty when the class was already up to date
+     */
+    public List<Path> writeSharedSteps(StepRegistry registry) throws IOException {
+        loadManifest();
+        Path shared = outputRoot.resolve("java").resolve(basePackage.replace('.', '/'))
+            .resolve(StepRegistry.SHARED_CLASS_NAME + ".java");
+        boolean written = writeIfChanged(shared, new GenerateSharedStepsCommand(registry, basePackage));
+        synchronized (this) {
+            sharedStepsWritten = true;
+        }
+        recordOutputs(SHARED_STEPS_OWNER, List.of(shared), written);
+        return written ? List.of(shared) : List.of();
+    }
+
+    /**
+     * Make the outputs the owner's in the manifest, deleting those it had before and no longer writes
+     */
+    private void recordOutputs(Path owner, List<Path> outputs, boolean written) throws IOException {
+        List<Path> stale = new ArrayList<>();
+        synchronized (this) {
+            List<Path> previous = outputsByStory.put(owner, outputs);
+            if (previous != null) {
+                for (Path output : previous) {
+                    if (!outputs.contains(output) && owner.equals(ownerByOutput.get(output))) {
+                        ownerByOutput.remove(output);
+                        hashByOutput.remove(output);
+                        stale.add(output);
+                    }
+                }
+            }
+            for (Path output : outputs) {
+                ownerByOutput.put(output, owner);
+            }
+            manifestDirty |= previous == null || !previous.equals(outputs) || written;
+        }
+        for (Path output : stale) {
+            deleteOutput(output);
+        }
+    }
+
+    /**
+     * Remove the outputs the story wrote, unless another story has since written the same file
+     *
+     * @return the files deleted
+     */
+    public List<Path> delete(Path storyPath) throws IOException {
+        loadManifest();
+        List<Path> owned = new ArrayList<>(2);
+        synchronized (this) {
+            storyByPackage.remove(packageOf(storyPath), storyPath);
+            List<Path> previous = outputsByStory.remove(storyPath);
+            if (previous == null) {
+                return List.of();
+            }
+            manifestDirty = true;
+            for (Path output : previous) {
+                if (storyPath.equals(ownerByOutput.get(output))) {
+                    ownerByOutput.remove(output);
+                    hashByOutput.remove(output);
+                    owned.add(output);
+                }
+            }
+        }
+        List<Path> deleted = new ArrayList<>(owned.size());
+        for (Path output : owned) {
+            if (deleteOutput(output)) {
+                deleted.add(output);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Remove the outputs of every story in the manifest that is not among the
+     * given ones, and the shared step class unless this writer wrote it
+     *
+     * @param storyPaths the stories that still exist, relative to the story root
+     * @return the stories whose outputs were removed
+     */
+    public List<Path> retainStories(Collection<Path> storyPaths) throws IOException {
+        loadManifest();
+        Set<Path> retained = new HashSet<>(storyPaths);
+        List<Path> orphans = new ArrayList<>();
+        synchronized (this) {
+            if (sharedStepsWritten) {
+                retained.add(SHARED_STEPS_OWNER);
+            }
+            for (Path storyPath : outputsByStory.keySet()) {
+                if (!retained.contains(storyPath)) {
+                    orphans.add(storyPath);
+                }
+            }
+        }
+        orphans.sort(null);
+        for (Path orphan : orphans) {
+            delete(orphan);
+        }
+        orphans.remove(SHARED_STEPS_OWNER);
+        return orphans;
+    }
+
+    /**
+     * Save the manifest under the output root if anything changed since it was last saved or loaded
+     */
+    public void saveManifest() throws IOException {
+        StringBuilder manifest = new StringBuilder();
+        synchronized (this) {
+            if (!manifestDirty) {
+                return;
+            }
+            // Sorted so the manifest itself only changes when the outputs do
+            Map<String, Path> stories = new TreeMap<>();
+            outputsByStory.keySet().forEach(storyPath -> stories.put(portable(storyPath), storyPath));
+            for (Map.Entry<String, Path> entry : stories.entrySet()) {
+                for (Path output : outputsByStory.get(entry.getValue())) {
+                    String hash = hashByOutput.get(output);
+                    if (hash != null && entry.getValue().equals(ownerByOutput.get(output))) {
+                        manifest.append(entry.getKey()).append('\t')
+                            .append(portable(outputRoot.relativize(output))).append('\t')
+                            .append(hash).append('\n');
+                    }
+                }
+            }
+            manifestDirty = false;
+        }
+        writeAtomically(outputRoot.resolve(MANIFEST_FILE), manifest);
+    }
+
+    /**
+     * Read the manifest left by an earlier run, once, before the first use
+     */
+    private synchronized void loadManifest() throws IOException {
+        if (manifestLoaded) {
+            return;
+        }
+        manifestLoaded = true;
+        try (BufferedReader reader = Files.newBufferedReader(outputRoot.resolve(MANIFEST_FILE), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length != 3) {
+                    continue;
+                }
+                Path storyPath = Paths.get(fields[0]);
+                Path output = outputRoot.resolve(fields[1]);
+                outputsByStory.computeIfAbsent(storyPath, path -> new ArrayList<>(2)).add(output);
+                if (!storyPath.equals(SHARED_STEPS_OWNER)) {
+                    storyByPackage.putIfAbsent(packageOf(storyPath), storyPath);
+                }
+                ownerByOutput.put(output, storyPath);
+                hashByOutput.put(output, fields[2]);
+            }
+        } catch (NoSuchFileException e) {
+            // First run into this output root
+        }
+    }
+
+    /**
+     * Stream the command's output into a temporary file, hashing it on the
+     * way, and move it into place unless the file already holds exactly that
+     * content according to the manifest, in which case the temporary file is
+     * dropped. The output is never held in memory as a whole.
+     *
+     * @return whether the file was written
+     */
+    private boolean writeIfChanged(Path file, StreamingCommand command) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = tempFileFor(file);
+        MessageDigest digest = sha256();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new DigestOutputStream(Files.newOutputStream(temp), digest), StandardCharsets.UTF_8))) {
+            command.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        String hash = hex(digest.digest());
+        boolean unchanged;
+        synchronized (this) {
+            unchanged = hash.equals(hashByOutput.get(file)) && Files.isRegularFile(file);
+        }
+        if (unchanged) {
+            Files.delete(temp);
+            return false;
+        }
+        moveIntoPlace(temp, file);
+        synchronized (this) {
+            hashByOutput.put(file, hash);
+        }
+        return true;
+    }
+
+    /**
+     * Delete a generated file and any package directories it leaves empty
+     */
+    private boolean deleteOutput(Path output) throws IOException {
+        boolean deleted = Files.deleteIfExists(output);
+        for (Path dir = output.getParent(); dir != null && !dir.equals(outputRoot) && dir.startsWith(outputRoot);
+                dir = dir.getParent()) {
+            try {
+                Files.delete(dir);
+            } catch (DirectoryNotEmptyException | NoSuchFileException e) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * A relative path with '/' separators, as stored in the manifest
+     */
+    private static String portable(Path path) {
+        StringBuilder portable = new StringBuilder();
+        for (Path element : path) {
+            if (portable.length() > 0) {
+                portable.append('/');
+            }
+            portable.append(element);
+        }
+        return portable.toString();
+    }
+
+    private static String featureFileName(Path storyPath) {
+        String fileName = storyPath.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName) + ".feature";
+    }
+
+    /**
+     * A path element as a package name segment: lower case ASCII letters,
+     * digits and '_', anything else replaced by '_', prefixed with '_' when it
+     * would start with a digit or be a keyword
+     */
+    private static String identifier(String element) {
+        StringBuilder segment = new StringBuilder(element.length() + 1);
+        for (int i = 0; i < element.length(); i++) {
+            char c = Character.toLowerCase(element.charAt(i));
+            segment.append((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' ? c : '_');
+        }
+        String name = segment.toString();
+        if (name.isEmpty() || Character.isDigit(name.charAt(0)) || SourceVersion.isKeyword(name)) {
+            name = "_" + name;
+        }
+        return name;
+    }
+
+    /**
+     * Write the content to a temporary file and move it into place
+     */
+    private static void writeAtomically(Path file, CharSequence content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = tempFileFor(file);
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.append(content);
+        }
+        moveIntoPlace(temp, file);
+    }
+
+    private static Path tempFileFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    private static void moveIntoPlace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
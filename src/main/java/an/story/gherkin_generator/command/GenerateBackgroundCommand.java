@@ -2,10 +2,12 @@ package an.story.gherkin_generator.command;
 
 import an.story.domain_model.ServiceTopology;
 
+import java.io.IOException;
+
 /**
  * Command to generate a Background section from a ServiceTopology
  */
-public class GenerateBackgroundCommand implements Command<String> {
+public class GenerateBackgroundCommand implements StreamingCommand {
     private final ServiceTopology topology;
     
     public GenerateBackgroundCommand(ServiceTopology topology) {
@@ -13,8 +15,7 @@ public class GenerateBackgroundCommand implements Command<String> {
     }
     
     @Override
-    public String execute() {
-        StringBuilder bg = new StringBuilder();
+    public void writeTo(Appendable bg) throws IOException {
         bg.append("  Background:\n");
         
         for (String service : topology.getServices()) {
@@ -30,7 +31,5 @@ public class GenerateBackgroundCommand implements Command<String> {
         }
         
         bg.append("\n");
-        return bg.toString();
     }
 }
-
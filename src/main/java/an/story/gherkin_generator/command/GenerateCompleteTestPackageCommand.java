@@ -7,17 +7,23 @@ import an.story.gherkin_generator.model.TestPackage;
  * Command to generate a complete test package (feature file and step definitions) from a Jira story
  */
 public class GenerateCompleteTestPackageCommand implements Command<TestPackage> {
-    private final JiraStory story;
+    private final GenerationContext context;
+    private final String basePackage;
     
     public GenerateCompleteTestPackageCommand(JiraStory story, String basePackage) {
-        this.story = story;
+        this(new GenerationContext(story), basePackage);
+    }
+    
+    public GenerateCompleteTestPackageCommand(GenerationContext context, String basePackage) {
+        this.context = context;
+        this.basePackage = basePackage;
     }
     
     @Override
     public TestPackage execute() {
         return new TestPackage(
-            new GenerateFeatureFileFromStoryCommand(story).execute()
+            new GenerateFeatureFileFromStoryCommand(context).execute(),
+            new GenerateStepDefinitionsCommand(context, basePackage).execute()
         );
     }
 }
-
@@ -3,39 +3,42 @@ package an.story.gherkin_generator.command;
 import an.story.domain_model.AcceptanceCriterion;
 import an.story.domain_model.JiraStory;
 import an.story.domain_model.ServiceTopology;
-import an.story.parser.JiraStoryParser;
+
+import java.io.IOException;
 
 /**
  * Command to generate a complete Gherkin feature file from a Jira story
  */
-public class GenerateFeatureFileFromStoryCommand implements Command<String> {
-    private final JiraStory story;
+public class GenerateFeatureFileFromStoryCommand implements StreamingCommand {
+    private final GenerationContext context;
     
     public GenerateFeatureFileFromStoryCommand(JiraStory story) {
-        this.story = story;
+        this(new GenerationContext(story));
+    }
+    
+    public GenerateFeatureFileFromStoryCommand(GenerationContext context) {
+        this.context = context;
     }
     
     @Override
-    public String execute() {
-        StringBuilder feature = new StringBuilder();
+    public void writeTo(Appendable feature) throws IOException {
+        JiraStory story = context.getStory();
         
         // Feature header
-        feature.append("Feature: ").append(new GenerateFeatureNameCommand(story).execute()).append("\n");
+        feature.append("Feature: ").append(context.getFeatureName()).append("\n");
         feature.append("  ").append(story.getValueStatement().toString()).append("\n\n");
         
         // Background section if needed
-        ServiceTopology topology = new JiraStoryParser().extractTopology(story);
+        ServiceTopology topology = context.getTopology();
         if (!topology.getServices().isEmpty()) {
-            feature.append(new GenerateBackgroundCommand(topology).execute());
+            new GenerateBackgroundCommand(topology).writeTo(feature);
         }
         
         // Scenarios from acceptance criteria
         for (AcceptanceCriterion criterion : story.getAcceptanceCriteria()) {
-            feature.append(new GenerateScenarioCommand(criterion).execute());
+            new GenerateScenarioCommand(criterion).writeTo(feature);
             feature.append("\n");
         }
-        
-        return feature.toString();
     }
 }
 
@@ -1,13 +1,14 @@
- package an.story.gherkin_generator.command;
+package an.story.gherkin_generator.command;
 
 import an.story.domain_model.AcceptanceCriterion;
+import an.story.domain_model.StepKind;
 
-import java.util.List;
+import java.io.IOException;
 
 /**
  * Command to generate a Scenario section from an AcceptanceCriterion
  */
-public class GenerateScenarioCommand implements Command<String> {
+public class GenerateScenarioCommand implements StreamingCommand {
     private final AcceptanceCriterion criterion;
     
     public GenerateScenarioCommand(AcceptanceCriterion criterion) {
@@ -15,24 +16,26 @@ public class GenerateScenarioCommand implements Command<String> {
     }
     
     @Override
-    public String execute() {
-        StringBuilder scenario = new StringBuilder();
-        
+    public void writeTo(Appendable scenario) throws IOException {
         scenario.append("  Scenario: ").append(criterion.getScenarioName()).append("\n");
         
-        appendStatements(scenario, criterion.getGivenStatements(), "Given");
-        appendStatements(scenario, criterion.getWhenStatements(), "When");
-        appendStatements(scenario, criterion.getThenStatements(), "Then");
-        
-        return scenario.toString();
+        appendStatements(scenario, StepKind.GIVEN, "Given");
+        appendStatements(scenario, StepKind.WHEN, "When");
+        appendStatements(scenario, StepKind.THEN, "Then");
     }
     
-    private void appendStatements(StringBuilder scenario, List<String> statements, String primaryKeyword) {
-        for (int i = 0; i < statements.size(); i++) {
-            String keyword = i == 0 ? primaryKeyword : "And";
+    /**
+     * Steps of one kind in story order, read straight from the criterion rather than through a derived list
+     */
+    private void appendStatements(Appendable scenario, StepKind kind, String primaryKeyword) throws IOException {
+        String keyword = primaryKeyword;
+        for (int i = 0; i < criterion.getStepCount(); i++) {
+            if (criterion.getStepKind(i) != kind) {
+                continue;
+            }
             scenario.append("    ").append(keyword).append(" ")
-                    .append(statements.get(i)).append("\n");
+                    .append(criterion.getStep(i)).append("\n");
+            keyword = "And";
         }
     }
 }
-
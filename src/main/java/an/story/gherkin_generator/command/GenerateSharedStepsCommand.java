@@ -0,0 +1,37 @@
+package an.story.gherkin_generator.command;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Command to generate the step definition class holding the steps a StepRegistry shares between stories
+ */
+public class GenerateSharedStepsCommand implements StreamingCommand {
+    private final StepRegistry registry;
+    private final String packageName;
+    
+    public GenerateSharedStepsCommand(StepRegistry registry, String packageName) {
+        this.registry = registry;
+        this.packageName = packageName;
+    }
+    
+    @Override
+    public void writeTo(Appendable steps) throws IOException {
+        steps.append("package ").append(packageName).append(";\n\n");
+        steps.append("import io.cucumber.java.en.*;\n");
+        steps.append("import an.story.gherkin_generator.TestContext;\n\n");
+        
+        String className = StepRegistry.SHARED_CLASS_NAME;
+        steps.append("public class ").append(className).append(" {\n\n");
+        steps.append("    private TestContext context;\n\n");
+        steps.append("    public ").append(className).append("(TestContext context) {\n");
+        steps.append("        this.context = context;\n");
+        steps.append("    }\n\n");
+        
+        for (Map.Entry<String, String> step : registry.getSharedSteps().entrySet()) {
+            GenerateStepMethodCommand.writeExpressionMethod(steps, step.getKey(), step.getValue());
+        }
+        
+        steps.append("}\n");
+    }
+}
@@ -2,27 +2,40 @@ package an.story.gherkin_generator.command;
 
 import an.story.domain_model.JiraStory;
 import an.story.domain_model.ServiceTopology;
-import an.story.parser.JiraStoryParser;
 
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Command to generate Java step definition class from a Jira story
+ *
+ * Given a frozen StepRegistry, the class only defines the story's steps the
+ * registry does not share, as parameterized Cucumber expressions; the others
+ * are in the shared class.
  */
-public class GenerateStepDefinitionsCommand implements Command<String> {
-    private final JiraStory story;
+public class GenerateStepDefinitionsCommand implements StreamingCommand {
+    private final GenerationContext context;
     private final String packageName;
+    private final StepRegistry registry;
     
     public GenerateStepDefinitionsCommand(JiraStory story, String packageName) {
-        this.story = story;
+        this(new GenerationContext(story), packageName);
+    }
+    
+    public GenerateStepDefinitionsCommand(GenerationContext context, String packageName) {
+        this(context, packageName, null);
+    }
+    
+    public GenerateStepDefinitionsCommand(GenerationContext context, String packageName, StepRegistry registry) {
+        this.context = context;
         this.packageName = packageName;
+        this.registry = registry;
     }
     
     @Override
-    public String execute() {
-        StringBuilder steps = new StringBuilder();
-        
+    public void writeTo(Appendable steps) throws IOException {
         // Package and imports
         steps.append("package ").append(packageName).append(";\n\n");
         steps.append("import java.util.Arrays;\n");
@@ -35,7 +48,7 @@ public class GenerateStepDefinitionsCommand implements Command<String> {
         steps.append("import an.story.gherkin_generator.MultiServiceTestHarness;\n\n");
         
         // Class
-        String className = new GenerateStepDefinitionClassNameCommand(story).execute();
+        String className = context.getStepDefinitionClassName();
         steps.append("public class ").append(className).append(" {\n\n");
         
         // Test context and harness
@@ -48,25 +61,21 @@ public class GenerateStepDefinitionsCommand implements Command<String> {
         steps.append("    }\n\n");
         
         // Setup hook
-        ServiceTopology topology = new JiraStoryParser().extractTopology(story);
+        ServiceTopology topology = context.getTopology();
         steps.append("    @Before\n");
         steps.append("    public void setUp() throws Exception {\n");
         if (topology.getServices().isEmpty()) {
             steps.append("        List<String> services = Arrays.asList();\n");
         } else {
             steps.append("        List<String> services = Arrays.asList(");
-            steps.append(topology.getServices().stream()
-                    .map(s -> "\"" + s + "\"")
-                    .collect(Collectors.joining(", ")));
+            appendQuoted(steps, topology.getServices());
             steps.append(");\n");
         }
         if (topology.getEvents().isEmpty()) {
             steps.append("        List<String> events = Arrays.asList();\n");
         } else {
             steps.append("        List<String> events = Arrays.asList(");
-            steps.append(topology.getEvents().stream()
-                    .map(e -> "\"" + e + "\"")
-                    .collect(Collectors.joining(", ")));
+            appendQuoted(steps, topology.getEvents());
             steps.append(");\n");
         }
         steps.append("        harness = new MultiServiceTestHarness(services, events);\n");
@@ -82,17 +91,28 @@ public class GenerateStepDefinitionsCommand implements Command<String> {
         steps.append("        }\n");
         steps.append("    }\n\n");
         
-        // Collect unique step definitions
-        Set<String> uniqueSteps = new CollectUniqueStepsCommand(story).execute();
-        
         // Generate step methods
-        for (String step : uniqueSteps) {
-            steps.append(new GenerateStepMethodCommand(step).execute());
+        if (registry == null) {
+            for (String step : context.getUniqueSteps()) {
+                new GenerateStepMethodCommand(context, step).writeTo(steps);
+            }
+        } else {
+            Set<String> used = new HashSet<>(List.of("setUp", "tearDown"));
+            for (String expression : registry.ownExpressions(context.getUniqueSteps())) {
+                GenerateStepMethodCommand.writeExpressionMethod(steps, expression,
+                    StepRegistry.methodName(expression, used));
+            }
         }
         
         steps.append("}\n");
-        
-        return steps.toString();
+    }
+    
+    private static void appendQuoted(Appendable steps, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                steps.append(", ");
+            }
+            steps.append('"').append(values.get(i)).append('"');
+        }
     }
 }
-
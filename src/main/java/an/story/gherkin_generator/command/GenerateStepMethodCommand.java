@@ -1,25 +1,56 @@
 package an.story.gherkin_generator.command;
 
+import java.io.IOException;
+
 /**
  * Command to generate a step method from step text
  */
-public class GenerateStepMethodCommand implements Command<String> {
+public class GenerateStepMethodCommand implements StreamingCommand {
+    private final GenerationContext context;
     private final String stepText;
     
     public GenerateStepMethodCommand(String stepText) {
+        this(null, stepText);
+    }
+    
+    /**
+     * Step method whose annotation and name are memoized in the story's context
+     */
+    public GenerateStepMethodCommand(GenerationContext context, String stepText) {
+        this.context = context;
         this.stepText = stepText;
     }
     
     @Override
-    public String execute() {
-        StringBuilder method = new StringBuilder();
-        
-        String annotation = new DetermineAnnotationCommand(stepText).execute();
+    public void writeTo(Appendable method) throws IOException {
+        String annotation = context != null
+            ? context.getAnnotation(stepText)
+            : new DetermineAnnotationCommand(stepText).execute();
         String cucumberExpression = stepText;
-        String methodName = new GenerateMethodNameCommand(stepText).execute();
+        String methodName = context != null
+            ? context.getMethodName(stepText)
+            : new GenerateMethodNameCommand(stepText).execute();
         
+        writeMethod(method, annotation, cucumberExpression, methodName, 0);
+    }
+    
+    /**
+     * Step method for a StepRegistry expression, taking one String per {string} parameter
+     */
+    static void writeExpressionMethod(Appendable method, String expression, String methodName) throws IOException {
+        String annotation = new DetermineAnnotationCommand(StepRegistry.stepTextOf(expression)).execute();
+        String literal = expression.replace("\\", "\\\\").replace("\"", "\\\"");
+        writeMethod(method, annotation, literal, methodName, StepRegistry.parameterCount(expression));
+    }
+    
+    private static void writeMethod(Appendable method, String annotation, String cucumberExpression,
+                                    String methodName, int parameters) throws IOException {
         method.append("    @").append(annotation).append("(\"").append(cucumberExpression).append("\")\n");
-        method.append("    public void ").append(methodName).append("() {\n");
+        method.append("    public void ").append(methodName).append("(");
+        for (int i = 0; i < parameters; i++) {
+            method.append(i > 0 ? ", String arg" : "String arg").append(String.valueOf(i));
+        }
+        method.append(") {\n");
         method.append("        // TODO: Implement this step\n");
         method.append("        // Available: harness.getService(\"serviceName\")\n");
         method.append("        //           harness.waitForEvent(\"eventType\", timeoutSeconds)\n");
@@ -27,8 +58,6 @@ public class GenerateStepMethodCommand implements Command<String> {
         method.append("        //           context.set(\"key\", value)\n");
         method.append("        throw new io.cucumber.java.PendingException();\n");
         method.append("    }\n\n");
-        
-        return method.toString();
     }
 }
 
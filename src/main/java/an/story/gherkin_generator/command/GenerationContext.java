@@ -0,0 +1,74 @@
+package an.story.gherkin_generator.command;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import an.story.domain_model.JiraStory;
+import an.story.domain_model.ServiceTopology;
+import an.story.parser.JiraStoryParser;
+
+/**
+ * Values derived from one story while generating its tests, each computed on
+ * first use and reused by every command that needs it.
+ *
+ * Create one per story and pass it to the commands; a context is not shared
+ * between threads.
+ */
+public final class GenerationContext {
+    private static final JiraStoryParser PARSER = new JiraStoryParser();
+
+    private final JiraStory story;
+    private ServiceTopology topology;
+    private Set<String> uniqueSteps;
+    private String featureName;
+    private String stepDefinitionClassName;
+    private final Map<String, String> methodNames = new HashMap<>();
+    private final Map<String, String> annotations = new HashMap<>();
+
+    public GenerationContext(JiraStory story) {
+        if (story == null) {
+            throw new IllegalArgumentException("Story cannot be null");
+        }
+        this.story = story;
+    }
+
+    public JiraStory getStory() { return story; }
+
+    public ServiceTopology getTopology() {
+        if (topology == null) {
+            topology = PARSER.extractTopology(story);
+        }
+        return topology;
+    }
+
+    public Set<String> getUniqueSteps() {
+        if (uniqueSteps == null) {
+            uniqueSteps = Collections.unmodifiableSet(new CollectUniqueStepsCommand(story).execute());
+        }
+        return uniqueSteps;
+    }
+
+    public String getFeatureName() {
+        if (featureName == null) {
+            featureName = new GenerateFeatureNameCommand(story).execute();
+        }
+        return featureName;
+    }
+
+    public String getStepDefinitionClassName() {
+        if (stepDefinitionClassName == null) {
+            stepDefinitionClassName = new GenerateStepDefinitionClassNameCommand(story).execute();
+        }
+        return stepDefinitionClassName;
+    }
+
+    public String getMethodName(String stepText) {
+        return methodNames.computeIfAbsent(stepText, step -> new GenerateMethodNameCommand(step).execute());
+    }
+
+    public String getAnnotation(String stepText) {
+        return annotations.computeIfAbsent(stepText, step -> new DetermineAnnotationCommand(step).execute());
+    }
+}
@@ -0,0 +1,164 @@
+package an.story.gherkin_generator.command;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.SourceVersion;
+
+/**
+ * Corpus-wide registry of step definitions, so a step used by many stories
+ * is defined once instead of once per story.
+ *
+ * Step text is turned into a Cucumber expression: every quoted value (the
+ * ones GenerateMethodNameCommand turns into "param") replaced by {string} and
+ * the characters Cucumber expressions treat specially escaped. Everything
+ * else, whitespace included, is kept as written, because the feature file
+ * carries the step text unchanged and Cucumber matches it literally. Register the steps of every story, then freeze: a step
+ * used by more than one story belongs to the shared step definition class,
+ * a step used by only one stays in that story's class.
+ *
+ * register may be called from several threads; after freeze the registry is
+ * read-only and safe to share.
+ */
+public final class StepRegistry {
+    public static final String SHARED_CLASS_NAME = "SharedSteps";
+
+    private static final String PARAMETER = "{string}";
+
+    private final Map<String, String> firstStoryByExpression = new HashMap<>();
+    private final Set<String> sharedExpressions = new HashSet<>();
+    private volatile Map<String, String> sharedMethodNames;
+
+    /**
+     * Record the steps one story uses
+     *
+     * @param storyId identifies the story; registering the same story again adds nothing
+     */
+    public synchronized void register(String storyId, Collection<String> stepTexts) {
+        if (sharedMethodNames != null) {
+            throw new IllegalStateException("Step registry is frozen");
+        }
+        for (String stepText : stepTexts) {
+            String expression = toExpression(stepText);
+            String firstStory = firstStoryByExpression.putIfAbsent(expression, storyId);
+            if (firstStory != null && !firstStory.equals(storyId)) {
+                sharedExpressions.add(expression);
+            }
+        }
+    }
+
+    /**
+     * Stop registering and name the shared step methods. Names only depend on
+     * the steps, not on the order stories were registered in.
+     */
+    public synchronized void freeze() {
+        if (sharedMethodNames != null) {
+            return;
+        }
+        List<String> sorted = new ArrayList<>(sharedExpressions);
+        Collections.sort(sorted);
+        Map<String, String> names = new LinkedHashMap<>();
+        Set<String> used = new HashSet<>();
+        for (String expression : sorted) {
+            names.put(expression, methodName(expression, used));
+        }
+        sharedMethodNames = Collections.unmodifiableMap(names);
+    }
+
+    public boolean isShared(String stepText) {
+        return frozen().containsKey(toExpression(stepText));
+    }
+
+    /**
+     * Expressions of the shared steps, sorted, each mapped to its method name
+     */
+    public Map<String, String> getSharedSteps() {
+        return frozen();
+    }
+
+    public synchronized int getStepCount() {
+        return firstStoryByExpression.size();
+    }
+
+    private Map<String, String> frozen() {
+        Map<String, String> names = sharedMethodNames;
+        if (names == null) {
+            throw new IllegalStateException("Step registry must be frozen before it is queried");
+        }
+        return names;
+    }
+
+    /**
+     * The Cucumber expression matching the step text and any other step that
+     * differs from it only in its quoted values
+     */
+    public static String toExpression(String stepText) {
+        StringBuilder expression = new StringBuilder(stepText.length());
+        for (int i = 0; i < stepText.length(); i++) {
+            char c = stepText.charAt(i);
+            int closing = c == '"' ? stepText.indexOf('"', i + 1) : -1;
+            if (closing >= 0) {
+                expression.append(PARAMETER);
+                i = closing;
+            } else if (c == '(' || c == ')' || c == '{' || c == '}' || c == '/' || c == '\\') {
+                expression.append('\\').append(c);
+            } else {
+                expression.append(c);
+            }
+        }
+        return expression.toString();
+    }
+
+    static int parameterCount(String expression) {
+        int count = 0;
+        for (int i = expression.indexOf(PARAMETER); i >= 0; i = expression.indexOf(PARAMETER, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * The expression written back as step text, with each parameter as an empty quoted value
+     */
+    static String stepTextOf(String expression) {
+        return expression.replace(PARAMETER, "\"\"");
+    }
+
+    /**
+     * Method name for the expression, made a valid identifier and distinct from the names already used
+     */
+    static String methodName(String expression, Set<String> used) {
+        String name = new GenerateMethodNameCommand(stepTextOf(expression)).execute();
+        if (!SourceVersion.isName(name)) {
+            name = "step" + name;
+        }
+        String unique = name;
+        for (int n = 2; !used.add(unique); n++) {
+            unique = name + n;
+        }
+        return unique;
+    }
+
+    /**
+     * The distinct expressions among the steps, in order, that the registry does not share
+     */
+    Set<String> ownExpressions(Collection<String> stepTexts) {
+        Map<String, String> shared = frozen();
+        Set<String> own = new LinkedHashSet<>();
+        for (String stepText : stepTexts) {
+            String expression = toExpression(stepText);
+            if (!shared.containsKey(expression)) {
+                own.add(expression);
+            }
+        }
+        return own;
+    }
+}
@@ -0,0 +1,34 @@
+package an.story.gherkin_generator.command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Command whose text output can be written straight into a caller-supplied
+ * Appendable (a StringBuilder, a Writer, a buffered file writer) instead of
+ * being built up as a String first. Composite commands pass the same
+ * Appendable down to the commands they are made of, so a large feature file
+ * streams to its destination without intermediate copies.
+ */
+public interface StreamingCommand extends Command<String> {
+
+    /**
+     * Writes the command's output to the given Appendable
+     */
+    void writeTo(Appendable out) throws IOException;
+
+    /**
+     * Returns the output as a String; a thin wrapper around writeTo
+     */
+    @Override
+    default String execute() {
+        StringBuilder out = new StringBuilder();
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            // StringBuilder does not throw
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+}
@@ -1,20 +1,36 @@
 package an.story.main;
 
 import an.story.parser.JiraStoryParser;
+import an.story.parser.ParseDiagnostic;
+import an.story.parser.StoryParseResult;
 import an.story.domain_model.JiraStory;
 import an.story.domain_model.Requirement;
 import an.story.domain_model.AcceptanceCriterion;
 import an.story.domain_model.ServiceTopology;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
 
 // Example Usage and Test
+//
+// Batch mode: JiraStoryParserMain --batch <dir> [parallelism]
 
 public class JiraStoryParserMain {
     public static void main(String[] args) {
         JiraStoryParser parser = new JiraStoryParser();
 
+        if (args.length >= 2 && "--batch".equals(args[0])) {
+            int parallelism = args.length >= 3
+                ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+            runBatch(parser, Paths.get(args[1]), parallelism);
+            return;
+        }
+
         try {
             InputStream resourceStream = JiraStoryParserMain.class.getResourceAsStream("/sample-jira.story");
             if (resourceStream == null) {
@@ -56,4 +72,36 @@ public class JiraStoryParserMain {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Parse every .story file under the directory and report throughput
+     */
+    private static void runBatch(JiraStoryParser parser, Path dir, int parallelism) {
+        long start = System.nanoTime();
+        int parsed = 0;
+        int failed = 0;
+
+        try (Stream<StoryParseResult> results = parser.parseAll(dir, parallelism)) {
+            for (StoryParseResult result : (Iterable<StoryParseResult>) results::iterator) {
+                if (result.isSuccess()) {
+                    parsed++;
+                } else {
+                    failed++;
+                    System.err.println("FAILED " + result.getSource() + ": "
+                        + result.getDiagnostic().map(ParseDiagnostic::toString)
+                            .orElseGet(() -> result.getError().map(Exception::getMessage).orElse("")));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing stories in " + dir + ": " + e.getMessage());
+            return;
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        int total = parsed + failed;
+        System.out.println("=== Batch Parse ===");
+        System.out.printf("Files: %d (parsed %d, failed %d)%n", total, parsed, failed);
+        System.out.printf("Wall time: %.3f s%n", seconds);
+        System.out.printf("Throughput: %.1f files/s%n", seconds > 0 ? total / seconds : 0.0);
+    }
 }
@@ -0,0 +1,95 @@
+package an.story.main;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import an.story.domain_model.JiraStory;
+import an.story.gherkin_generator.GherkinTestGenerator;
+import an.story.parser.JiraStoryParser;
+import an.story.server.StoryServer;
+
+// Serves story parsing over HTTP from one long-running JVM.
+//
+// StoryServerMain [--port n] [--max-concurrent n] [--budget-ms n]
+//     [--max-body-bytes n] [--warmup n]
+//
+//   curl --data-binary @my.story http://localhost:8080/parse
+
+public class StoryServerMain {
+    public static void main(String[] args) {
+        int port = 8080;
+        int maxConcurrent = Runtime.getRuntime().availableProcessors() * 4;
+        long budgetMillis = 0;
+        int maxBodyBytes = StoryServer.DEFAULT_MAX_BODY_BYTES;
+        int warmup = 500;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--port": port = Integer.parseInt(value); break;
+                    case "--max-concurrent": maxConcurrent = Integer.parseInt(value); break;
+                    case "--budget-ms": budgetMillis = Long.parseLong(value); break;
+                    case "--max-body-bytes": maxBodyBytes = Integer.parseInt(value); break;
+                    case "--warmup": warmup = Integer.parseInt(value); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: StoryServerMain [--port n] [--max-concurrent n] [--budget-ms n] "
+                + "[--max-body-bytes n] [--warmup n]");
+            System.exit(2);
+            return;
+        }
+
+        JiraStoryParser parser = budgetMillis > 0
+            ? new JiraStoryParser(Duration.ofMillis(budgetMillis))
+            : new JiraStoryParser();
+        warmUp(parser, warmup);
+
+        StoryServer server;
+        try {
+            server = new StoryServer(new InetSocketAddress(port), parser, maxConcurrent, maxBodyBytes);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error starting server: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "story-server-shutdown"));
+        server.start();
+        System.out.printf("Story server listening on port %d (at most %d concurrent requests)%n",
+            server.getPort(), maxConcurrent);
+    }
+
+    /**
+     * Parse and generate from the bundled sample so the first clients do not pay for JIT compilation
+     */
+    private static void warmUp(JiraStoryParser parser, int iterations) {
+        if (iterations <= 0) {
+            return;
+        }
+        String storyText;
+        try (InputStream resourceStream = StoryServerMain.class.getResourceAsStream("/sample-jira.story")) {
+            if (resourceStream == null) {
+                return;
+            }
+            storyText = new String(resourceStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return;
+        }
+        GherkinTestGenerator generator = new GherkinTestGenerator();
+        for (int i = 0; i < iterations; i++) {
+            JiraStory story = parser.parse(storyText);
+            parser.extractTopology(story);
+            generator.generateFeatureFileFromStory(story);
+        }
+    }
+}
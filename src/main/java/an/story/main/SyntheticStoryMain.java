@@ -0,0 +1,72 @@
+package an.story.main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import an.story.testdata.SyntheticStoryGenerator;
+
+// Writes a synthetic story corpus to disk for load and scale testing.
+//
+// SyntheticStoryMain --out <dir> | --export <file> [--count n] [--seed n]
+//     [--requirements n] [--services n] [--events n] [--scenarios n]
+//     [--and-chain n] [--continuation-lines n] [--notes-bytes n]
+
+public class SyntheticStoryMain {
+    public static void main(String[] args) {
+        SyntheticStoryGenerator.Builder builder = SyntheticStoryGenerator.builder();
+        Path dir = null;
+        Path export = null;
+        int count = 100;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--out": dir = Paths.get(value); break;
+                    case "--export": export = Paths.get(value); break;
+                    case "--count": count = Integer.parseInt(value); break;
+                    case "--seed": builder.seed(Long.parseLong(value)); break;
+                    case "--requirements": builder.requirements(Integer.parseInt(value)); break;
+                    case "--services": builder.services(Integer.parseInt(value)); break;
+                    case "--events": builder.events(Integer.parseInt(value)); break;
+                    case "--scenarios": builder.scenarios(Integer.parseInt(value)); break;
+                    case "--and-chain": builder.andChain(Integer.parseInt(value)); break;
+                    case "--continuation-lines": builder.continuationLines(Integer.parseInt(value)); break;
+                    case "--notes-bytes": builder.notesBytes(Integer.parseInt(value)); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+            if ((dir == null) == (export == null)) {
+                throw new IllegalArgumentException("Give exactly one of --out <dir> or --export <file>");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: SyntheticStoryMain --out <dir> | --export <file> [--count n] [--seed n] "
+                + "[--requirements n] [--services n] [--events n] [--scenarios n] "
+                + "[--and-chain n] [--continuation-lines n] [--notes-bytes n]");
+            System.exit(2);
+            return;
+        }
+
+        SyntheticStoryGenerator generator = builder.build();
+        long start = System.nanoTime();
+        try {
+            if (dir != null) {
+                generator.writeStoryFiles(dir, count);
+            } else {
+                generator.writeExport(export, count);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing stories: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Wrote %d stories to %s in %.3f s%n", count, dir != null ? dir : export, seconds);
+    }
+}
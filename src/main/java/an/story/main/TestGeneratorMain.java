@@ -1,7 +1,10 @@
 package an.story.main;
 
 import an.story.domain_model.JiraStory;
+import an.story.gherkin_generator.BatchTestGenerator;
 import an.story.gherkin_generator.GherkinTestGenerator;
+import an.story.gherkin_generator.StoryWatcher;
+import an.story.gherkin_generator.TestPackageWriter;
 import an.story.parser.JiraStoryParser;
 
 import java.io.IOException;
@@ -9,12 +12,30 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 /**
  * Example usage of the Gherkin test generator
+ *
+ * Watch mode: TestGeneratorMain --watch <storyDir> [--out dir] [--package name] [--debounce-ms n]
+ * generates tests for every story, then regenerates only the stories that change, one at a
+ * time and without shared steps, so --parallelism and --shared-steps are rejected there.
+ *
+ * Batch mode: TestGeneratorMain --batch <storyDir> [--out dir] [--package name] [--parallelism n]
+ * [--shared-steps] generates tests for every story in parallel and reports throughput; with
+ * --shared-steps, steps used by several stories are defined once in a shared class.
  */
 public class TestGeneratorMain {
     public static void main(String[] args) {
+        if (args.length >= 2 && "--watch".equals(args[0])) {
+            runWatch(args);
+            return;
+        }
+        if (args.length >= 2 && "--batch".equals(args[0])) {
+            runBatch(args);
+            return;
+        }
+
         String storyText = "{panel:title=Value Statement | titleBGColor=#b9d9ed}\n" +
             "As a Chase Bank product owner, I want to ensure that users over age of 120 are not allowed to apply for a credit card, so that we\n" +
             "maintain data integrity and comply with realistic age expectations.\n" +
@@ -52,5 +73,105 @@ public class TestGeneratorMain {
             e.printStackTrace();
         }
     }
-}
 
+    private static final String USAGE =
+        "Usage: TestGeneratorMain --watch <storyDir> [--out dir] [--package name] [--debounce-ms n]\n"
+        + "       TestGeneratorMain --batch <storyDir> [--out dir] [--package name] [--parallelism n] [--shared-steps]";
+
+    /**
+     * Options of watch and batch mode; an option the mode does not use is rejected rather than ignored
+     */
+    private static final class Options {
+        final Path storyDir;
+        Path outputDir = Paths.get("target/generated-tests");
+        String basePackage = "an.story.generated";
+        long debounceMillis = 200;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        boolean sharedSteps;
+
+        Options(String[] args, boolean watch) {
+            storyDir = Paths.get(args[1]);
+            for (int i = 2; i < args.length; i++) {
+                String option = args[i];
+                boolean batchOnly = "--shared-steps".equals(option) || "--parallelism".equals(option);
+                if (watch ? batchOnly : "--debounce-ms".equals(option)) {
+                    throw new IllegalArgumentException(option + " does not apply in "
+                        + (watch ? "watch" : "batch") + " mode");
+                }
+                if ("--shared-steps".equals(option)) {
+                    sharedSteps = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--out": outputDir = Paths.get(value); break;
+                    case "--package": basePackage = value; break;
+                    case "--debounce-ms": debounceMillis = Long.parseLong(value); break;
+                    case "--parallelism": parallelism = Integer.parseInt(value); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+        }
+    }
+
+    private static Options parseOptions(String[] args, boolean watch) {
+        try {
+            return new Options(args, watch);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return null;
+        }
+    }
+
+    private static void runWatch(String[] args) {
+        Options options = parseOptions(args, true);
+        TestPackageWriter writer = new TestPackageWriter(options.outputDir, options.basePackage);
+        try (StoryWatcher watcher = new StoryWatcher(options.storyDir, writer, new JiraStoryParser())) {
+            StoryWatcher.Update initial = watcher.generateAll();
+            report(initial);
+            System.out.println("Watching " + options.storyDir.toAbsolutePath() + " for changes; output in "
+                + options.outputDir.toAbsolutePath());
+            watcher.watch(Duration.ofMillis(options.debounceMillis), TestGeneratorMain::report);
+        } catch (IOException e) {
+            System.err.println("Error watching " + options.storyDir + ": " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Generate test packages for every story under the directory and report throughput
+     */
+    private static void runBatch(String[] args) {
+        Options options = parseOptions(args, false);
+        TestPackageWriter writer = new TestPackageWriter(options.outputDir, options.basePackage);
+        BatchTestGenerator.Report report;
+        try {
+            report = new BatchTestGenerator(new JiraStoryParser(), writer, options.parallelism, options.sharedSteps)
+                .generate(options.storyDir);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error generating tests for " + options.storyDir + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        report.getFailed().forEach((story, reason) -> System.err.println("FAILED " + story + ": " + reason));
+        System.out.println("=== Batch Test Generation ===");
+        System.out.println(report);
+        System.out.println("Output in " + options.outputDir.toAbsolutePath());
+    }
+
+    private static void report(StoryWatcher.Update update) {
+        System.out.println(update);
+        if (update.getRegenerated().size() <= 10) {
+            update.getRegenerated().forEach(story -> System.out.println("  regenerated " + story));
+        }
+        update.getRemoved().forEach(story -> System.out.println("  removed " + story));
+        update.getFailed().forEach((story, reason) -> System.err.println("  FAILED " + story + ": " + reason));
+    }
+}
@@ -0,0 +1,62 @@
+package an.story.parser;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Iterates batch parse results in file order while keeping at most
+ * {@code window} files in flight on the executor.
+ */
+final class BatchParseIterator implements Iterator<StoryParseResult> {
+    private final Iterator<Path> files;
+    private final ExecutorService executor;
+    private final Function<Path, StoryParseResult> task;
+    private final int window;
+    private final Deque<Future<StoryParseResult>> inFlight = new ArrayDeque<>();
+
+    BatchParseIterator(Iterator<Path> files, ExecutorService executor,
+                       Function<Path, StoryParseResult> task, int window) {
+        this.files = files;
+        this.executor = executor;
+        this.task = task;
+        this.window = window;
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !inFlight.isEmpty();
+    }
+
+    @Override
+    public StoryParseResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Future<StoryParseResult> head = inFlight.poll();
+        try {
+            return head.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for batch parse results");
+        } catch (ExecutionException e) {
+            // The task catches its own failures, so this only happens for Errors
+            throw new IllegalStateException("Batch parse task failed", e.getCause());
+        }
+    }
+
+    private void fill() {
+        while (inFlight.size() < window && files.hasNext()) {
+            Path file = files.next();
+            inFlight.add(executor.submit(() -> task.apply(file)));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package an.story.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import an.story.domain_model.JiraStory;
+
+/**
+ * Caches parse results keyed on a SHA-256 digest of the story text, so a
+ * hit is never another story's parse.
+ *
+ * Recent stories are kept in a bounded LRU. With a cache directory, every
+ * parsed story is also written there in StoryCodec form, so a fresh process
+ * can skip parsing stories that have not changed since the last run. A story
+ * StoryCodec cannot store, one holding a string over its size limit, is only
+ * cached in memory.
+ *
+ * Cached JiraStory instances are shared between callers and must not be modified.
+ */
+public class CachingStoryParser {
+    private static final String ENTRY_SUFFIX = ".bin";
+
+    private final JiraStoryParser parser;
+    private final Path cacheDir;
+    private final Map<Key, JiraStory> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * In-memory cache only
+     */
+    public CachingStoryParser(JiraStoryParser parser, int maxEntries) {
+        this(parser, maxEntries, null);
+    }
+
+    /**
+     * In-memory cache backed by entries persisted under cacheDir
+     */
+    public CachingStoryParser(JiraStoryParser parser, int maxEntries, Path cacheDir) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry: " + maxEntries);
+        }
+        this.parser = parser;
+        this.cacheDir = cacheDir;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, JiraStory> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Parse a story, reusing an earlier result for identical text
+     */
+    public JiraStory parse(String storyText) {
+        if (storyText == null) {
+            // Let the parser reject it with its usual message
+            return parser.parse(null);
+        }
+
+        Key key = new Key(digest(storyText));
+        JiraStory story;
+        synchronized (entries) {
+            story = entries.get(key);
+        }
+        if (story != null) {
+            hits.increment();
+            return story;
+        }
+
+        story = readEntry(key);
+        if (story != null) {
+            diskHits.increment();
+        } else {
+            misses.increment();
+            story = parser.parse(storyText);
+            writeEntry(key, story);
+        }
+
+        synchronized (entries) {
+            entries.put(key, story);
+        }
+        return story;
+    }
+
+    /** Parses answered from memory */
+    public long getHitCount() { return hits.sum(); }
+
+    /** Parses answered from the cache directory */
+    public long getDiskHitCount() { return diskHits.sum(); }
+
+    /** Parses that actually ran the parser */
+    public long getMissCount() { return misses.sum(); }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CachingStoryParser{" +
+                "hits=" + getHitCount() +
+                ", diskHits=" + getDiskHitCount() +
+                ", misses=" + getMissCount() +
+                ", size=" + size() +
+                '}';
+    }
+
+    private JiraStory readEntry(Key key) {
+        if (cacheDir == null) {
+            return null;
+        }
+        try (InputStream stream = Files.newInputStream(entryPath(key));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != StoryCodec.FORMAT_VERSION) {
+                return null;
+            }
+            byte[] digest = new byte[key.digest.length];
+            in.readFully(digest);
+            if (!Arrays.equals(digest, key.digest)) {
+                return null;
+            }
+            return StoryCodec.read(in);
+        } catch (IOException e) {
+            // A missing, stale or truncated entry is just a miss; it is rewritten below
+            return null;
+        }
+    }
+
+    private void writeEntry(Key key, JiraStory story) {
+        if (cacheDir == null) {
+            return;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(cacheDir);
+            temp = Files.createTempFile(cacheDir, "entry", ".tmp");
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(StoryCodec.FORMAT_VERSION);
+                out.write(key.digest);
+                StoryCodec.write(story, out);
+            }
+            Files.move(temp, entryPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+        } catch (IOException e) {
+            // Persistence is best effort; the in-memory result is still valid
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Left for the next run to overwrite
+                }
+            }
+        }
+    }
+
+    private Path entryPath(Key key) {
+        return cacheDir.resolve(HexFormat.of().formatHex(key.digest) + ENTRY_SUFFIX);
+    }
+
+    private static byte[] digest(String storyText) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(storyText.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Key {
+        private final byte[] digest;
+
+        Key(byte[] digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            return Arrays.equals(digest, ((Key) other).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(digest);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package an.story.parser;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 fingerprint of story text, taken over its UTF-16 code units.
+ *
+ * reparse reuses a panel's parsed form whenever its fingerprint is unchanged,
+ * without comparing the text, so equal fingerprints must mean equal text;
+ * a fast 64-bit hash could collide and hand back a stale panel.
+ */
+public final class ContentHash {
+    /** Length of a fingerprint in bytes */
+    public static final int LENGTH = 32;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentHash() {
+    }
+
+    public static byte[] of(CharSequence text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] buffer = new byte[Math.min(BUFFER_SIZE, text.length() * 2)];
+        int filled = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (filled == buffer.length) {
+                digest.update(buffer, 0, filled);
+                filled = 0;
+            }
+            char c = text.charAt(i);
+            buffer[filled++] = (byte) (c >>> 8);
+            buffer[filled++] = (byte) c;
+        }
+        digest.update(buffer, 0, filled);
+        return digest.digest();
+    }
+}
@@ -1,13 +1,21 @@
 package an.story.parser;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
-import java.util.regex.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import an.story.domain_model.JiraStory;
-import an.story.domain_model.ValueStatement;
 import an.story.domain_model.Requirement;
-import an.story.domain_model.AcceptanceCriterion;
 import an.story.domain_model.Panel;
+import an.story.domain_model.StepKind;
 import an.story.domain_model.ServiceTopology;
 
 
@@ -17,191 +25,468 @@ import an.story.domain_model.ServiceTopology;
  * Main parser for Jira stories in panel format
  */
 public class JiraStoryParser {
-    
-    private static final Pattern PANEL_PATTERN = Pattern.compile(
-        "\\{panel:title=([^|}]+)(?:[^}]+)?\\}\\s*(.*?)\\s*\\{panel\\}",
-        Pattern.DOTALL
-    );
+
+    /** Files below this size are cheaper to read than to map */
+    private static final long MAP_THRESHOLD_BYTES = 64 * 1024;
+
+    /** Lines scanned between time budget checks */
+    private static final int BUDGET_CHECK_LINES = 256;
+
+    private final Duration budget;
+    private final long budgetNanos;
+
+    /**
+     * A parser without a time budget
+     */
+    public JiraStoryParser() {
+        this.budget = null;
+        this.budgetNanos = 0;
+    }
+
+    /**
+     * A parser that gives up on any single story taking longer than the
+     * budget: parse throws IllegalArgumentException and tryParse reports
+     * TIME_BUDGET_EXCEEDED. The clock is checked between panels and every few
+     * hundred lines, so a story can overrun the budget by that much work.
+     */
+    public JiraStoryParser(Duration budget) {
+        if (budget == null || budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("Parse time budget must be positive: " + budget);
+        }
+        this.budget = budget;
+        this.budgetNanos = budget.toNanos();
+    }
 
     /**
      * Parse a complete Jira story
      */
     public JiraStory parse(String storyText) {
-        if (storyText == null || storyText.trim().isEmpty()) {
-            throw new IllegalArgumentException("Story text cannot be null or empty");
+        return parseText(storyText);
+    }
+
+    /**
+     * Parse a story without throwing on malformed input. A story that does not
+     * parse yields a result carrying a ParseDiagnostic (panel, line, reason);
+     * no exception is created on that path, which keeps bulk ingestion of
+     * partly malformed corpora cheap.
+     */
+    public StoryParseResult tryParse(CharSequence storyText) {
+        return tryParse(storyText, null, 0);
+    }
+
+    StoryParseResult tryParse(CharSequence storyText, Path source, long byteOffset) {
+        StoryBuildingVisitor builder = new StoryBuildingVisitor();
+        ParseDiagnostic diagnostic = scan(storyText, builder, false);
+        if (diagnostic == null && !builder.hasValueStatement()) {
+            diagnostic = ParseDiagnostic.MISSING_VALUE_STATEMENT;
         }
+        return diagnostic != null
+            ? StoryParseResult.invalid(source, byteOffset, diagnostic)
+            : StoryParseResult.success(source, byteOffset, builder.build());
+    }
 
-        List<Panel> panels = extractPanels(storyText);
-        
-        ValueStatement valueStatement = null;
-        List<Requirement> requirements = new ArrayList<>();
-        List<AcceptanceCriterion> acceptanceCriteria = new ArrayList<>();
+    /**
+     * Parse a complete Jira story read from the given reader. The reader is
+     * drained but not closed.
+     *
+     * Not an overload of parse(String): parse(null) has to stay unambiguous.
+     */
+    public JiraStory parseReader(Reader reader) throws IOException {
+        StringBuilder storyText = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            storyText.append(buffer, 0, read);
+        }
+        return parseText(storyText);
+    }
 
-        for (Panel panel : panels) {
-            String title = panel.getTitle().toLowerCase();
-            
-            if (title.contains("value statement")) {
-                valueStatement = parseValueStatement(panel.getContent());
-            } else if (title.contains("requirements")) {
-                requirements = parseRequirements(panel.getContent());
-            } else if (title.contains("acceptance criteria")) {
-                acceptanceCriteria = parseAcceptanceCriteria(panel.getContent());
-            }
+    /**
+     * Parse a story file. Large files are memory-mapped and scanned in place
+     * instead of being read into a byte[] and copied into a String.
+     *
+     * Not an overload of parse(String): parse(null) has to stay unambiguous.
+     */
+    public JiraStory parseFile(Path file) throws IOException {
+        return parseText(readStoryText(file));
+    }
+
+    /**
+     * Parse every .story file under the given directory, spreading the files
+     * across all available cores.
+     *
+     * @see #parseAll(Path, int)
+     */
+    public Stream<StoryParseResult> parseAll(Path dir) throws IOException {
+        return parseAll(dir, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Parse every .story file under the given directory on a fork-join pool
+     * of the given parallelism. Results come back in file order, one per
+     * file, and a file that fails to read or parse yields a failure result
+     * instead of aborting the batch. At most {@code 2 * parallelism} files
+     * are in flight at once, so a slow consumer bounds memory use.
+     *
+     * The returned stream owns the pool and must be closed.
+     */
+    public Stream<StoryParseResult> parseAll(Path dir, int parallelism) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
         }
 
-        if (valueStatement == null) {
-            throw new IllegalArgumentException("Story must contain a Value Statement");
+        Stream<Path> files = Files.walk(dir)
+            .filter(path -> path.toString().endsWith(".story"))
+            .filter(Files::isRegularFile)
+            .sorted();
+        ExecutorService executor = new ForkJoinPool(parallelism);
+
+        BatchParseIterator results = new BatchParseIterator(
+            files.iterator(), executor, this::parseFileQuietly, parallelism * 2);
+
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED | Spliterator.NONNULL),
+                false)
+            .onClose(() -> {
+                executor.shutdownNow();
+                files.close();
+            });
+    }
+
+    /**
+     * Parse a bulk export file holding many stories, one story at a time.
+     * The returned stream owns the file and must be closed.
+     *
+     * @see StoryExportReader
+     */
+    public Stream<StoryParseResult> parseExport(Path exportFile) throws IOException {
+        return new StoryExportReader(exportFile, this).records();
+    }
+
+    private StoryParseResult parseFileQuietly(Path file) {
+        try {
+            return tryParse(readStoryText(file), file, 0);
+        } catch (IOException | RuntimeException e) {
+            return StoryParseResult.failure(file, e);
         }
+    }
 
-        return new JiraStory(valueStatement, requirements, acceptanceCriteria);
+    /**
+     * Small files are read into a String; larger ones are mapped and decoded in place
+     */
+    private static CharSequence readStoryText(Path file) throws IOException {
+        if (Files.size(file) < MAP_THRESHOLD_BYTES) {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        }
+        return MappedStoryText.open(file);
     }
 
     /**
-     * Extract all panels from the story text
+     * Re-parse an edited story, reusing whatever did not change.
+     *
+     * Each panel of the new text is fingerprinted and compared with the
+     * fingerprints recorded on the previous story. Only panels whose content
+     * changed are parsed again; unchanged value statements, requirement lists
+     * and acceptance criteria are taken from the previous story as-is. In an
+     * edited requirements panel, requirements whose number and text did not
+     * change are also reused, keeping their already extracted entities.
+     *
+     * Fingerprints are only recorded by reparse, so parse stays free of the
+     * hashing. A story without them (from parse, or null) is parsed in full,
+     * and the story returned carries fingerprints, so every later edit is
+     * incremental; reparse(null, storyText) parses a story ready for editing.
      */
-    private List<Panel> extractPanels(String storyText) {
-        List<Panel> panels = new ArrayList<>();
-        Matcher matcher = PANEL_PATTERN.matcher(storyText);
-        
-        while (matcher.find()) {
-            String title = matcher.group(1).trim();
-            String content = matcher.group(2).trim();
-            panels.add(new Panel(title, content));
+    public JiraStory reparse(JiraStory previous, String storyText) {
+        if (previous == null || previous.getPanelFingerprints() == null) {
+            return parseText(storyText, null, true);
         }
-        
-        return panels;
+        return parseText(storyText, previous, true);
     }
 
     /**
-     * Parse the value statement (As a... I want... so that...)
+     * Scan a story and report what it contains to the visitor, without
+     * building any domain objects beyond what the visitor itself builds.
+     * parse() is this method with a visitor that builds the JiraStory.
      */
-    private ValueStatement parseValueStatement(String content) {
-        Pattern pattern = Pattern.compile(
-            "As a\\s+([^,]+),\\s*I want(?:\\s+to)?\\s+(.+?),\\s*so that\\s+(.+)",
-            Pattern.CASE_INSENSITIVE | Pattern.DOTALL
-        );
-        
-        Matcher matcher = pattern.matcher(content);
-        if (matcher.find()) {
-            String persona = matcher.group(1).trim();
-            String goal = matcher.group(2).trim();
-            String benefit = matcher.group(3).trim();
+    public void parse(CharSequence storyText, JiraStoryVisitor visitor) {
+        scan(storyText, visitor, true);
+    }
+
+    /**
+     * The scan behind parse and tryParse: returns null on success, otherwise
+     * either throws IllegalArgumentException or returns the diagnostic
+     */
+    private ParseDiagnostic scan(CharSequence storyText, JiraStoryVisitor visitor, boolean throwOnError) {
+        if (storyText == null || isBlank(storyText)) {
+            if (throwOnError) {
+                throw new IllegalArgumentException(ParseDiagnostic.Reason.EMPTY_STORY.getMessage());
+            }
+            return ParseDiagnostic.EMPTY_STORY;
+        }
+
+        long deadline = budgetNanos > 0 ? System.nanoTime() + budgetNanos : 0;
+        PanelScanner panels = new PanelScanner(storyText);
+        Panel panel;
+        while ((panel = panels.next()) != null) {
+            PanelKind kind = PanelKind.of(panel.getTitle());
+            if (deadline != 0 && System.nanoTime() - deadline > 0) {
+                return fail(ParseDiagnostic.Reason.TIME_BUDGET_EXCEEDED, kind, storyText, panels, throwOnError);
+            }
+            CharSequence content = panel.getContentView();
+            if (!visitor.enterPanel(kind, panel.getTitle(), content)) {
+                continue;
+            }
+
+            ParseDiagnostic.Reason failure = null;
+            switch (kind) {
+                case VALUE_STATEMENT:
+                    if (!parseValueStatement(content, visitor)) {
+                        if (throwOnError) {
+                            throw new IllegalArgumentException("Invalid value statement format: " + content);
+                        }
+                        failure = ParseDiagnostic.Reason.INVALID_VALUE_STATEMENT;
+                    }
+                    break;
+                case REQUIREMENTS:
+                    failure = parseRequirements(content, visitor, deadline);
+                    break;
+                case ACCEPTANCE_CRITERIA:
+                    failure = parseAcceptanceCriteria(content, visitor, deadline);
+                    break;
+                default:
+                    break;
+            }
+            if (failure != null) {
+                return fail(failure, kind, storyText, panels, throwOnError);
+            }
+        }
+        return null;
+    }
+
+    private ParseDiagnostic fail(ParseDiagnostic.Reason reason, PanelKind kind, CharSequence storyText,
+                                 PanelScanner panels, boolean throwOnError) {
+        if (throwOnError) {
+            if (reason == ParseDiagnostic.Reason.TIME_BUDGET_EXCEEDED) {
+                throw new IllegalArgumentException(
+                    "Story parse exceeded the time budget of " + budget.toMillis() + " ms");
+            }
+            throw new IllegalArgumentException(reason.getMessage());
+        }
+        return new ParseDiagnostic(reason, kind, PanelScanner.lineOf(storyText, panels.contentStart()));
+    }
+
+    private static boolean passed(long deadline, int lineCount) {
+        return deadline != 0 && lineCount % BUDGET_CHECK_LINES == 0 && System.nanoTime() - deadline > 0;
+    }
+
+    private JiraStory parseText(CharSequence storyText) {
+        return parseText(storyText, null, false);
+    }
+
+    private JiraStory parseText(CharSequence storyText, JiraStory previous, boolean fingerprint) {
+        StoryBuildingVisitor builder = new StoryBuildingVisitor(previous, fingerprint);
+        parse(storyText, builder);
+        return builder.build();
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse the value statement (As a... I want... so that...); false if it does not match
+     */
+    private boolean parseValueStatement(CharSequence content, JiraStoryVisitor visitor) {
+        String[] groups = ValueStatementMatcher.match(content);
+        if (groups != null) {
+            String persona = groups[0].trim();
+            String goal = groups[1].trim();
+            String benefit = groups[2].trim();
             
-            return new ValueStatement(persona, goal, benefit);
+            visitor.onValueStatement(persona, goal, benefit);
+            return true;
         }
-        
-        throw new IllegalArgumentException("Invalid value statement format: " + content);
+        return false;
     }
 
     /**
-     * Parse numbered requirements list
+     * Parse numbered requirements list; returns why it stopped early, or null
      */
-    private List<Requirement> parseRequirements(String content) {
-        List<Requirement> requirements = new ArrayList<>();
-        
-        // Split by line and find numbered items
-        String[] lines = content.split("\\r?\\n");
+    private ParseDiagnostic.Reason parseRequirements(CharSequence content, JiraStoryVisitor visitor, long deadline) {
+        // Walk the lines and find numbered items
+        LineCursor lines = new LineCursor(content);
         StringBuilder currentRequirement = new StringBuilder();
         Integer currentNumber = null;
+        int lineCount = 0;
         
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            
-            // Check if this line starts with a number
-            Pattern numberPattern = Pattern.compile("^(\\d+)\\.\\s*(.*)");
-            Matcher matcher = numberPattern.matcher(line);
+        String line;
+        while ((line = lines.nextLine()) != null) {
+            if (passed(deadline, ++lineCount)) {
+                return ParseDiagnostic.Reason.TIME_BUDGET_EXCEEDED;
+            }
+            // Check if this line starts with a number: digits, '.', optional whitespace, then the text
+            int digits = 0;
+            while (digits < line.length() && line.charAt(digits) >= '0' && line.charAt(digits) <= '9') {
+                digits++;
+            }
             
-            if (matcher.find()) {
-                // Save previous requirement if exists
+            if (digits > 0 && digits < line.length() && line.charAt(digits) == '.') {
+                // Report previous requirement if exists
                 if (currentNumber != null && currentRequirement.length() > 0) {
-                    requirements.add(new Requirement(currentNumber, 
-                                                    currentRequirement.toString().trim()));
+                    visitor.onRequirement(currentNumber, currentRequirement.toString().trim());
                 }
                 
                 // Start new requirement
-                currentNumber = Integer.parseInt(matcher.group(1));
-                currentRequirement = new StringBuilder(matcher.group(2));
+                currentNumber = parseNumber(line, digits);
+                if (currentNumber < 0) {
+                    return ParseDiagnostic.Reason.INVALID_REQUIREMENT_NUMBER;
+                }
+                currentRequirement.setLength(0);
+                appendFirstLine(currentRequirement, line, digits + 1);
             } else if (currentNumber != null) {
                 // Continuation of current requirement
                 currentRequirement.append(" ").append(line);
             }
         }
         
-        // Add last requirement
+        // Report last requirement
         if (currentNumber != null && currentRequirement.length() > 0) {
-            requirements.add(new Requirement(currentNumber, 
-                                            currentRequirement.toString().trim()));
+            visitor.onRequirement(currentNumber, currentRequirement.toString().trim());
         }
-        
-        return requirements;
+        return null;
     }
 
     /**
-     * Parse Gherkin-style acceptance criteria
+     * The leading digits of the line as an int, or -1 if they overflow
      */
-    private List<AcceptanceCriterion> parseAcceptanceCriteria(String content) {
-        List<AcceptanceCriterion> criteria = new ArrayList<>();
-        
-        String[] lines = content.split("\\r?\\n");
-        AcceptanceCriterion current = null;
+    private static int parseNumber(String line, int digits) {
+        long number = 0;
+        for (int i = 0; i < digits; i++) {
+            number = number * 10 + (line.charAt(i) - '0');
+            if (number > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        return (int) number;
+    }
+
+    /**
+     * Text of a numbered line after its whitespace, up to any line terminator, as {@code \s*(.*)} matches it
+     */
+    private static void appendFirstLine(StringBuilder requirement, String line, int from) {
+        int start = from;
+        while (start < line.length() && ValueStatementMatcher.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < line.length() && !isLineTerminator(line.charAt(end))) {
+            end++;
+        }
+        requirement.append(line, start, end);
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Parse Gherkin-style acceptance criteria; returns why it stopped early, or null
+     */
+    private ParseDiagnostic.Reason parseAcceptanceCriteria(CharSequence content, JiraStoryVisitor visitor,
+                                                           long deadline) {
+        LineCursor lines = new LineCursor(content);
+        boolean inScenario = false;
+        // Kind an "And" continues: the latest kind used so far in the scenario
+        StepKind lastKind = null;
+        int lineCount = 0;
         
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            
+        String line;
+        while ((line = lines.nextLine()) != null) {
+            if (passed(deadline, ++lineCount)) {
+                return ParseDiagnostic.Reason.TIME_BUDGET_EXCEEDED;
+            }
             if (line.startsWith("Scenario:")) {
-                if (current != null) {
-                    criteria.add(current);
-                }
                 String scenarioName = line.substring("Scenario:".length()).trim();
-                current = new AcceptanceCriterion(scenarioName);
-            } else if (current != null) {
+                visitor.onScenario(scenarioName);
+                inScenario = true;
+                lastKind = null;
+            } else if (inScenario) {
+                StepKind kind;
+                String statement;
                 if (line.startsWith("Given ")) {
-                    current.addGiven(line.substring("Given ".length()).trim());
+                    kind = StepKind.GIVEN;
+                    statement = line.substring("Given ".length());
                 } else if (line.startsWith("When ")) {
-                    current.addWhen(line.substring("When ".length()).trim());
+                    kind = StepKind.WHEN;
+                    statement = line.substring("When ".length());
                 } else if (line.startsWith("Then ")) {
-                    current.addThen(line.substring("Then ".length()).trim());
-                } else if (line.startsWith("And ")) {
-                    // Add to the most recent statement type
-                    String statement = line.substring("And ".length()).trim();
-                    if (!current.getThenStatements().isEmpty()) {
-                        current.addThen(statement);
-                    } else if (!current.getWhenStatements().isEmpty()) {
-                        current.addWhen(statement);
-                    } else if (!current.getGivenStatements().isEmpty()) {
-                        current.addGiven(statement);
-                    }
+                    kind = StepKind.THEN;
+                    statement = line.substring("Then ".length());
+                } else if (line.startsWith("And ") && lastKind != null) {
+                    kind = lastKind;
+                    statement = line.substring("And ".length());
+                } else {
+                    continue;
+                }
+                if (lastKind == null || kind.compareTo(lastKind) > 0) {
+                    lastKind = kind;
                 }
+                visitor.onStep(kind, statement.trim());
             }
         }
-        
-        if (current != null) {
-            criteria.add(current);
-        }
-        
-        return criteria;
+        return null;
     }
 
     /**
      * Extract service topology from parsed story
      */
     public ServiceTopology extractTopology(JiraStory story) {
-        Set<String> services = new HashSet<>();
-        Set<String> events = new HashSet<>();
-        Set<String> schemas = new HashSet<>();
-        
+        TopologyCollector topology = new TopologyCollector();
         for (Requirement req : story.getRequirements()) {
+            topology.add(req);
+        }
+        return topology.toTopology();
+    }
+
+    /**
+     * Extract the service topology straight from story text. Only the
+     * requirements panels are parsed; no JiraStory is built and the value
+     * statement is not validated.
+     */
+    public ServiceTopology parseTopology(CharSequence storyText) {
+        TopologyCollector topology = new TopologyCollector();
+        parse(storyText, new JiraStoryVisitor() {
+            @Override
+            public boolean enterPanel(PanelKind kind, String title, CharSequence content) {
+                return kind == PanelKind.REQUIREMENTS;
+            }
+
+            @Override
+            public void onRequirement(int number, String text) {
+                topology.add(new Requirement(number, text));
+            }
+        });
+        return topology.toTopology();
+    }
+
+    private static final class TopologyCollector {
+        private final Set<String> services = new HashSet<>();
+        private final Set<String> events = new HashSet<>();
+        private final Set<String> schemas = new HashSet<>();
+
+        void add(Requirement req) {
             services.addAll(req.getServices());
             events.addAll(req.getEvents());
             schemas.addAll(req.getSchemas());
         }
-        
-        return new ServiceTopology(
-            new ArrayList<>(services),
-            new ArrayList<>(events),
-            new ArrayList<>(schemas)
-        );
+
+        ServiceTopology toTopology() {
+            return new ServiceTopology(List.copyOf(services), List.copyOf(events), List.copyOf(schemas));
+        }
     }
 }
@@ -0,0 +1,37 @@
+package an.story.parser;
+
+import an.story.domain_model.StepKind;
+
+/**
+ * Callbacks fired while JiraStoryParser scans a story, in document order.
+ *
+ * Lets callers aggregate just what they need without building JiraStory,
+ * Requirement and AcceptanceCriterion objects. Every callback defaults to a
+ * no-op, and returning false from enterPanel skips parsing that panel
+ * altogether.
+ */
+public interface JiraStoryVisitor {
+
+    /**
+     * Called for every panel before its content is parsed
+     * @return true to parse the panel and receive its callbacks, false to skip it
+     */
+    default boolean enterPanel(PanelKind kind, String title, CharSequence content) {
+        return true;
+    }
+
+    default void onValueStatement(String persona, String goal, String benefit) {
+    }
+
+    default void onRequirement(int number, String text) {
+    }
+
+    default void onScenario(String name) {
+    }
+
+    /**
+     * A step of the most recent scenario; "And" steps arrive with the kind they continue
+     */
+    default void onStep(StepKind kind, String text) {
+    }
+}
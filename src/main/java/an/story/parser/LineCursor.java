@@ -0,0 +1,39 @@
+package an.story.parser;
+
+/**
+ * Walks the lines of a panel view, yielding each trimmed, non-empty line
+ */
+final class LineCursor {
+    private final CharSequence text;
+    private int position;
+
+    LineCursor(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Return the next trimmed non-empty line, or null at the end of the text
+     */
+    String nextLine() {
+        int length = text.length();
+        while (position < length) {
+            int start = position;
+            int end = start;
+            while (end < length && text.charAt(end) != '\n') {
+                end++;
+            }
+            position = end + 1;
+
+            while (start < end && text.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && text.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (start < end) {
+                return text.subSequence(start, end).toString();
+            }
+        }
+        return null;
+    }
+}
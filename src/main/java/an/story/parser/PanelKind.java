@@ -0,0 +1,23 @@
+package an.story.parser;
+
+/**
+ * What a story panel holds, decided from its title
+ */
+public enum PanelKind {
+    VALUE_STATEMENT,
+    REQUIREMENTS,
+    ACCEPTANCE_CRITERIA,
+    OTHER;
+
+    public static PanelKind of(String title) {
+        String lower = title.toLowerCase();
+        if (lower.contains("value statement")) {
+            return VALUE_STATEMENT;
+        } else if (lower.contains("requirements")) {
+            return REQUIREMENTS;
+        } else if (lower.contains("acceptance criteria")) {
+            return ACCEPTANCE_CRITERIA;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,131 @@
+package an.story.parser;
+
+import java.nio.CharBuffer;
+
+import an.story.domain_model.Panel;
+
+/**
+ * Single-pass scanner for {panel:title=...} ... {panel} blocks.
+ *
+ * Walks the story text once and hands out panels whose content is a view
+ * over the original text rather than a copy.
+ */
+final class PanelScanner {
+
+    private static final String PANEL_OPEN = "{panel:title=";
+    private static final String PANEL_CLOSE = "{panel}";
+
+    private final CharSequence text;
+    private int position;
+    private int contentStart;
+
+    PanelScanner(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Return the next panel, or null once the text is exhausted
+     */
+    Panel next() {
+        int length = text.length();
+
+        while (position < length) {
+            int open = indexOf(text, PANEL_OPEN, position);
+            if (open < 0) {
+                break;
+            }
+
+            // Title runs up to the first '|' or '}', header up to the first '}'
+            int titleStart = open + PANEL_OPEN.length();
+            int titleEnd = titleStart;
+            while (titleEnd < length && text.charAt(titleEnd) != '|' && text.charAt(titleEnd) != '}') {
+                titleEnd++;
+            }
+            if (titleEnd == titleStart) {
+                position = open + 1;
+                continue;
+            }
+
+            int headerEnd = titleEnd;
+            while (headerEnd < length && text.charAt(headerEnd) != '}') {
+                headerEnd++;
+            }
+            if (headerEnd == length) {
+                break;
+            }
+
+            int close = indexOf(text, PANEL_CLOSE, headerEnd + 1);
+            if (close < 0) {
+                break;
+            }
+
+            position = close + PANEL_CLOSE.length();
+
+            String title = text.subSequence(titleStart, titleEnd).toString().trim();
+            int contentStart = headerEnd + 1;
+            int contentEnd = close;
+            while (contentStart < contentEnd && text.charAt(contentStart) <= ' ') {
+                contentStart++;
+            }
+            while (contentEnd > contentStart && text.charAt(contentEnd - 1) <= ' ') {
+                contentEnd--;
+            }
+            this.contentStart = contentStart;
+            return new Panel(title, view(text, contentStart, contentEnd));
+        }
+
+        position = length;
+        return null;
+    }
+
+    /**
+     * Offset in the text of the trimmed content of the panel last returned by next()
+     */
+    int contentStart() {
+        return contentStart;
+    }
+
+    /**
+     * 1-based line of the offset; counts newlines, so only for reporting
+     */
+    static int lineOf(CharSequence text, int offset) {
+        int line = 1;
+        for (int i = 0; i < offset; i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Read-only view of text[start, end) that shares the underlying characters
+     */
+    static CharSequence view(CharSequence text, int start, int end) {
+        if (text instanceof CharBuffer || text instanceof MappedStoryText) {
+            return text.subSequence(start, end);
+        }
+        return CharBuffer.wrap(text, start, end);
+    }
+
+    static int indexOf(CharSequence text, String target, int from) {
+        if (text instanceof String) {
+            return ((String) text).indexOf(target, from);
+        }
+        char first = target.charAt(0);
+        int last = text.length() - target.length();
+        for (int i = Math.max(from, 0); i <= last; i++) {
+            if (text.charAt(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < target.length() && text.charAt(i + j) == target.charAt(j)) {
+                j++;
+            }
+            if (j == target.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
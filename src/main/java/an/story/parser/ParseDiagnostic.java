@@ -0,0 +1,67 @@
+package an.story.parser;
+
+/**
+ * Why a story could not be parsed, as reported by JiraStoryParser.tryParse.
+ *
+ * Carries the panel and the 1-based line in the story text where the problem
+ * was found, not the offending text itself, so a diagnostic stays small no
+ * matter how large the story is.
+ */
+public final class ParseDiagnostic {
+
+    public enum Reason {
+        EMPTY_STORY("Story text cannot be null or empty"),
+        MISSING_VALUE_STATEMENT("Story must contain a Value Statement"),
+        INVALID_VALUE_STATEMENT("Value statement does not match 'As a <persona>, I want <goal>, so that <benefit>'"),
+        INVALID_REQUIREMENT_NUMBER("Requirement number is too large"),
+        TIME_BUDGET_EXCEEDED("Story took longer to parse than the parser's time budget");
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() { return message; }
+    }
+
+    static final ParseDiagnostic EMPTY_STORY = new ParseDiagnostic(Reason.EMPTY_STORY, null, 0);
+    static final ParseDiagnostic MISSING_VALUE_STATEMENT =
+        new ParseDiagnostic(Reason.MISSING_VALUE_STATEMENT, PanelKind.VALUE_STATEMENT, 0);
+
+    private final Reason reason;
+    private final PanelKind panel;
+    private final int line;
+
+    ParseDiagnostic(Reason reason, PanelKind panel, int line) {
+        this.reason = reason;
+        this.panel = panel;
+        this.line = line;
+    }
+
+    public Reason getReason() { return reason; }
+
+    /**
+     * Panel the problem was found in, or null for problems with the story as a whole
+     */
+    public PanelKind getPanel() { return panel; }
+
+    /**
+     * 1-based line of the story text where the panel content starts; 0 when there is no such line
+     */
+    public int getLine() { return line; }
+
+    public String getMessage() { return reason.getMessage(); }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        if (line > 0) {
+            text.append("line ").append(line).append(": ");
+        }
+        if (panel != null) {
+            text.append(panel).append(": ");
+        }
+        return text.append(reason.getMessage()).toString();
+    }
+}
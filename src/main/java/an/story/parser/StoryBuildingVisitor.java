@@ -0,0 +1,147 @@
+package an.story.parser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import an.story.domain_model.AcceptanceCriterion;
+import an.story.domain_model.JiraStory;
+import an.story.domain_model.PanelFingerprints;
+import an.story.domain_model.Requirement;
+import an.story.domain_model.StepKind;
+import an.story.domain_model.ValueStatement;
+
+/**
+ * Visitor that builds the full JiraStory, as JiraStoryParser.parse returns it.
+ *
+ * Panels are only fingerprinted when asked to, for stories that reparse will
+ * see again; a plain parse does not pay for hashing every panel. Given a
+ * previous version of the story, panels whose fingerprint is unchanged
+ * are skipped and their parsed form is taken from the previous story, and
+ * requirements with unchanged number and text keep their previous instances.
+ */
+final class StoryBuildingVisitor implements JiraStoryVisitor {
+    private final JiraStory previous;
+    private final PanelFingerprints before;
+    private final boolean fingerprint;
+    private Map<String, Requirement> previousRequirements;
+
+    private final JiraStory.Builder story = JiraStory.builder();
+    private AcceptanceCriterion.Builder currentCriterion;
+
+    private byte[] valueStatementHash;
+    private byte[] requirementsHash;
+    private byte[] acceptanceCriteriaHash;
+
+    StoryBuildingVisitor() {
+        this(null, false);
+    }
+
+    /**
+     * @param previous the story's previous version, carrying fingerprints, or null
+     * @param fingerprint whether to record panel fingerprints on the built story
+     */
+    StoryBuildingVisitor(JiraStory previous, boolean fingerprint) {
+        this.previous = previous;
+        this.before = previous != null ? previous.getPanelFingerprints() : null;
+        this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public boolean enterPanel(PanelKind kind, String title, CharSequence content) {
+        finishCriterion();
+        switch (kind) {
+            case VALUE_STATEMENT:
+                if (fingerprint) {
+                    valueStatementHash = ContentHash.of(content);
+                    if (before != null && before.hasValueStatement(valueStatementHash)) {
+                        story.valueStatement(previous.getValueStatement());
+                        return false;
+                    }
+                }
+                return true;
+            case REQUIREMENTS:
+                if (fingerprint) {
+                    requirementsHash = ContentHash.of(content);
+                    if (before != null && before.hasRequirements(requirementsHash)) {
+                        story.requirements(previous.getRequirements());
+                        return false;
+                    }
+                }
+                story.requirements(List.of());
+                return true;
+            case ACCEPTANCE_CRITERIA:
+                if (fingerprint) {
+                    acceptanceCriteriaHash = ContentHash.of(content);
+                    if (before != null && before.hasAcceptanceCriteria(acceptanceCriteriaHash)) {
+                        story.acceptanceCriteria(previous.getAcceptanceCriteria());
+                        return false;
+                    }
+                }
+                story.acceptanceCriteria(List.of());
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void onValueStatement(String persona, String goal, String benefit) {
+        story.valueStatement(new ValueStatement(persona, goal, benefit));
+    }
+
+    @Override
+    public void onRequirement(int number, String text) {
+        Requirement unchanged = previousRequirement(text);
+        story.requirement(unchanged != null && unchanged.getNumber() == number
+            ? unchanged
+            : new Requirement(number, text));
+    }
+
+    @Override
+    public void onScenario(String name) {
+        finishCriterion();
+        currentCriterion = AcceptanceCriterion.builder(name);
+    }
+
+    @Override
+    public void onStep(StepKind kind, String text) {
+        currentCriterion.step(kind, text);
+    }
+
+    boolean hasValueStatement() {
+        return story.getValueStatement() != null;
+    }
+
+    JiraStory build() {
+        finishCriterion();
+        if (!hasValueStatement()) {
+            throw new IllegalArgumentException("Story must contain a Value Statement");
+        }
+
+        if (fingerprint) {
+            story.panelFingerprints(new PanelFingerprints(valueStatementHash, requirementsHash, acceptanceCriteriaHash));
+        }
+        return story.build();
+    }
+
+    private void finishCriterion() {
+        if (currentCriterion != null) {
+            story.acceptanceCriterion(currentCriterion.build());
+            currentCriterion = null;
+        }
+    }
+
+    private Requirement previousRequirement(String text) {
+        if (previous == null || previous.getRequirements().isEmpty()) {
+            return null;
+        }
+        if (previousRequirements == null) {
+            previousRequirements = new HashMap<>();
+            for (Requirement requirement : previous.getRequirements()) {
+                previousRequirements.put(requirement.getText(), requirement);
+            }
+        }
+        return previousRequirements.get(text);
+    }
+}
@@ -0,0 +1,165 @@
+package an.story.parser;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import an.story.domain_model.AcceptanceCriterion;
+import an.story.domain_model.JiraStory;
+import an.story.domain_model.PanelFingerprints;
+import an.story.domain_model.Requirement;
+import an.story.domain_model.StepKind;
+import an.story.domain_model.ValueStatement;
+
+/**
+ * Compact binary form of a parsed JiraStory.
+ *
+ * Only what the parser produces is stored; requirement services, events and
+ * schemas are re-extracted lazily from the text on first use.
+ */
+public final class StoryCodec {
+
+    /** Bumped whenever the layout below changes; older entries are rejected */
+    public static final int FORMAT_VERSION = 4;
+
+    private static final StepKind[] STEP_KINDS = StepKind.values();
+
+    /**
+     * Longest string written or read. Writing a longer one fails, so nothing
+     * is stored that could not be read back; on read a corrupt length fails
+     * instead of exhausting the heap.
+     */
+    static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+
+    /** Lists are presized up to this many elements and grow past it as they are read */
+    private static final int MAX_PRESIZE = 1024;
+
+    private StoryCodec() {
+    }
+
+    /**
+     * @throws IOException also when the story holds a string over MAX_STRING_BYTES
+     */
+    public static void write(JiraStory story, DataOutput out) throws IOException {
+        ValueStatement valueStatement = story.getValueStatement();
+        out.writeBoolean(valueStatement != null);
+        if (valueStatement != null) {
+            writeString(out, valueStatement.getPersona());
+            writeString(out, valueStatement.getGoal());
+            writeString(out, valueStatement.getBenefit());
+        }
+
+        out.writeInt(story.getRequirements().size());
+        for (Requirement requirement : story.getRequirements()) {
+            out.writeInt(requirement.getNumber());
+            writeString(out, requirement.getText());
+        }
+
+        out.writeInt(story.getAcceptanceCriteria().size());
+        for (AcceptanceCriterion criterion : story.getAcceptanceCriteria()) {
+            writeString(out, criterion.getScenarioName());
+            out.writeInt(criterion.getStepCount());
+            for (int step = 0; step < criterion.getStepCount(); step++) {
+                out.writeByte(criterion.getStepKind(step).ordinal());
+                writeString(out, criterion.getStep(step));
+            }
+        }
+
+        PanelFingerprints fingerprints = story.getPanelFingerprints();
+        out.writeBoolean(fingerprints != null);
+        if (fingerprints != null) {
+            writeFingerprint(out, fingerprints.getValueStatement());
+            writeFingerprint(out, fingerprints.getRequirements());
+            writeFingerprint(out, fingerprints.getAcceptanceCriteria());
+        }
+    }
+
+    public static JiraStory read(DataInput in) throws IOException {
+        ValueStatement valueStatement = null;
+        if (in.readBoolean()) {
+            valueStatement = new ValueStatement(readString(in), readString(in), readString(in));
+        }
+
+        int requirementCount = readCount(in);
+        List<Requirement> requirements = new ArrayList<>(Math.min(requirementCount, MAX_PRESIZE));
+        for (int i = 0; i < requirementCount; i++) {
+            int number = in.readInt();
+            requirements.add(new Requirement(number, readString(in)));
+        }
+
+        int criterionCount = readCount(in);
+        List<AcceptanceCriterion> criteria = new ArrayList<>(Math.min(criterionCount, MAX_PRESIZE));
+        for (int i = 0; i < criterionCount; i++) {
+            AcceptanceCriterion.Builder criterion = AcceptanceCriterion.builder(readString(in));
+            int stepCount = readCount(in);
+            for (int step = 0; step < stepCount; step++) {
+                criterion.step(readStepKind(in), readString(in));
+            }
+            criteria.add(criterion.build());
+        }
+
+        PanelFingerprints fingerprints = null;
+        if (in.readBoolean()) {
+            fingerprints = new PanelFingerprints(readFingerprint(in), readFingerprint(in), readFingerprint(in));
+        }
+
+        return new JiraStory(valueStatement, requirements, criteria, fingerprints);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        // writeUTF caps strings at 64 KB, which long requirements can exceed
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IOException("Story holds a string of " + bytes.length + " bytes, over the "
+                + MAX_STRING_BYTES + " byte limit");
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = readCount(in);
+        if (length > MAX_STRING_BYTES) {
+            throw new IOException("Corrupt story data: string of " + length + " bytes exceeds "
+                + MAX_STRING_BYTES);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFingerprint(DataOutput out, byte[] fingerprint) throws IOException {
+        out.writeBoolean(fingerprint != null);
+        if (fingerprint != null) {
+            out.write(fingerprint);
+        }
+    }
+
+    private static byte[] readFingerprint(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] fingerprint = new byte[ContentHash.LENGTH];
+        in.readFully(fingerprint);
+        return fingerprint;
+    }
+
+    private static StepKind readStepKind(DataInput in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= STEP_KINDS.length) {
+            throw new IOException("Corrupt story data: unknown step kind " + ordinal);
+        }
+        return STEP_KINDS[ordinal];
+    }
+
+    private static int readCount(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt story data: negative length " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,276 @@
+package an.story.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import an.story.domain_model.JiraStory;
+
+/**
+ * Reads a bulk Jira export holding many stories, one story at a time.
+ *
+ * Stories are separated by a delimiter line, "----" by default, that sits
+ * outside any {panel} block. A "----" horizontal rule inside a panel does not
+ * split the story. Only the current story is held in memory, and every result
+ * carries the byte offset of its record so a failed story can be found in
+ * the export. A record larger than the configured maximum is skipped up to
+ * the next delimiter line and reported as a failure instead of being buffered.
+ */
+public class StoryExportReader implements Iterator<StoryParseResult>, Closeable {
+    public static final String DEFAULT_DELIMITER = "----";
+    public static final int DEFAULT_MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    /** Lines kept for delimiter checks while skipping an oversized record */
+    private static final int MAX_SKIPPED_LINE_BYTES = 4096;
+
+    private static final byte[] PANEL_OPEN = "{panel:title=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PANEL_CLOSE = "{panel}".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path source;
+    private final JiraStoryParser parser;
+    private final byte[] delimiter;
+    private final int maxRecordBytes;
+    private final InputStream in;
+
+    private final byte[] buffer = new byte[64 * 1024];
+    private int bufferPosition;
+    private int bufferLimit;
+    private long position;
+
+    private byte[] record = new byte[8192];
+    private int recordSize;
+    private int lineStart;
+    private boolean inPanel;
+    private boolean oversized;
+    private boolean skippingLine;
+
+    private StoryParseResult next;
+    private boolean finished;
+
+    public StoryExportReader(Path source, JiraStoryParser parser) throws IOException {
+        this(source, parser, DEFAULT_DELIMITER, DEFAULT_MAX_RECORD_BYTES);
+    }
+
+    public StoryExportReader(Path source, JiraStoryParser parser, String delimiter, int maxRecordBytes)
+            throws IOException {
+        if (delimiter == null || delimiter.trim().isEmpty()) {
+            throw new IllegalArgumentException("Delimiter cannot be null or empty");
+        }
+        if (maxRecordBytes < 1) {
+            throw new IllegalArgumentException("Maximum record size must be positive: " + maxRecordBytes);
+        }
+        this.source = source;
+        this.parser = parser;
+        this.delimiter = delimiter.trim().getBytes(StandardCharsets.UTF_8);
+        this.maxRecordBytes = maxRecordBytes;
+        this.in = Files.newInputStream(source);
+    }
+
+    /**
+     * One result per story record, in file order. Closing the stream closes the file.
+     */
+    public Stream<StoryParseResult> records() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+                false)
+            .onClose(this::closeQuietly);
+    }
+
+    /**
+     * Parsed stories in file order. A record that fails to parse throws
+     * IllegalArgumentException naming its byte offset.
+     */
+    public Stream<JiraStory> stories() {
+        return records().map(result -> result.getStory().orElseThrow(() -> new IllegalArgumentException(
+            "Story record at byte " + result.getByteOffset() + " of " + source + " failed to parse",
+            result.getError().orElse(null))));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading " + source + " at byte " + position, e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public StoryParseResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StoryParseResult result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read up to the next delimiter and parse what was read; null at end of file
+     */
+    private StoryParseResult readRecord() throws IOException {
+        long recordOffset = position;
+        resetRecord();
+
+        while (true) {
+            int b = readByte();
+            if (b < 0) {
+                int end = isDelimiterLine() ? lineStart : recordSize;
+                return recordSize == 0 && !oversized ? null : finishRecord(recordOffset, end);
+            }
+
+            appendByte((byte) b);
+            if (b != '\n') {
+                continue;
+            }
+
+            if (isDelimiterLine()) {
+                StoryParseResult result = finishRecord(recordOffset, lineStart);
+                if (result != null) {
+                    return result;
+                }
+                // Nothing but blank lines before this delimiter; start over after it
+                recordOffset = position;
+                resetRecord();
+                continue;
+            }
+
+            if (oversized) {
+                recordSize = 0;
+                skippingLine = false;
+            } else {
+                trackPanels(lineStart, recordSize);
+            }
+            lineStart = recordSize;
+        }
+    }
+
+    private StoryParseResult finishRecord(long recordOffset, int end) {
+        if (oversized) {
+            return StoryParseResult.failure(source, recordOffset, new IllegalArgumentException(
+                "Story record exceeds " + maxRecordBytes + " bytes"));
+        }
+        if (isBlank(0, end)) {
+            return null;
+        }
+        try {
+            String storyText = new String(record, 0, end, StandardCharsets.UTF_8);
+            return parser.tryParse(storyText, source, recordOffset);
+        } catch (RuntimeException e) {
+            return StoryParseResult.failure(source, recordOffset, e);
+        }
+    }
+
+    private void resetRecord() {
+        recordSize = 0;
+        lineStart = 0;
+        inPanel = false;
+        oversized = false;
+        skippingLine = false;
+    }
+
+    private int readByte() throws IOException {
+        if (bufferPosition == bufferLimit) {
+            int read = in.read(buffer);
+            if (read <= 0) {
+                return -1;
+            }
+            bufferPosition = 0;
+            bufferLimit = read;
+        }
+        position++;
+        return buffer[bufferPosition++] & 0xff;
+    }
+
+    private void appendByte(byte b) {
+        if (!oversized && recordSize >= maxRecordBytes) {
+            // Drop the record and skip to the next delimiter; panel tracking stops with the content
+            oversized = true;
+            inPanel = false;
+            skippingLine = true;
+            recordSize = 0;
+            lineStart = 0;
+        }
+        if (oversized && recordSize - lineStart >= MAX_SKIPPED_LINE_BYTES) {
+            // Too long to be a delimiter line; only its end matters now
+            skippingLine = true;
+        }
+        if (skippingLine) {
+            return;
+        }
+        if (recordSize == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+        }
+        record[recordSize++] = b;
+    }
+
+    private boolean isDelimiterLine() {
+        if (inPanel || skippingLine) {
+            return false;
+        }
+        int start = lineStart;
+        int end = recordSize;
+        while (start < end && (record[start] & 0xff) <= ' ') {
+            start++;
+        }
+        while (end > start && (record[end - 1] & 0xff) <= ' ') {
+            end--;
+        }
+        return Arrays.equals(record, start, end, delimiter, 0, delimiter.length);
+    }
+
+    private void trackPanels(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (record[i] != '{') {
+                continue;
+            }
+            if (startsWith(i, end, PANEL_OPEN)) {
+                inPanel = true;
+            } else if (startsWith(i, end, PANEL_CLOSE)) {
+                inPanel = false;
+            }
+        }
+    }
+
+    private boolean startsWith(int offset, int end, byte[] marker) {
+        return end - offset >= marker.length
+            && Arrays.equals(record, offset, offset + marker.length, marker, 0, marker.length);
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((record[i] & 0xff) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
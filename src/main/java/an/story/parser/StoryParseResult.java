@@ -0,0 +1,95 @@
+package an.story.parser;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import an.story.domain_model.JiraStory;
+
+/**
+ * Outcome of parsing one story file, or one record of an export file, in a
+ * batch: either the story, or the diagnostic or error that stopped it.
+ *
+ * A story rejected by tryParse carries a ParseDiagnostic and no exception;
+ * getError() builds one only when asked.
+ */
+public class StoryParseResult {
+    private final Path source;
+    private final long byteOffset;
+    private final JiraStory story;
+    private final Exception error;
+    private final ParseDiagnostic diagnostic;
+
+    private StoryParseResult(Path source, long byteOffset, JiraStory story, Exception error,
+                             ParseDiagnostic diagnostic) {
+        this.source = source;
+        this.byteOffset = byteOffset;
+        this.story = story;
+        this.error = error;
+        this.diagnostic = diagnostic;
+    }
+
+    public static StoryParseResult success(Path source, JiraStory story) {
+        return success(source, 0, story);
+    }
+
+    public static StoryParseResult success(Path source, long byteOffset, JiraStory story) {
+        return new StoryParseResult(source, byteOffset, story, null, null);
+    }
+
+    public static StoryParseResult failure(Path source, Exception error) {
+        return failure(source, 0, error);
+    }
+
+    public static StoryParseResult failure(Path source, long byteOffset, Exception error) {
+        return new StoryParseResult(source, byteOffset, null, error, null);
+    }
+
+    public static StoryParseResult invalid(Path source, long byteOffset, ParseDiagnostic diagnostic) {
+        return new StoryParseResult(source, byteOffset, null, null, diagnostic);
+    }
+
+    public Path getSource() { return source; }
+
+    /**
+     * Byte offset of the story within the source file; 0 when the file holds a single story
+     */
+    public long getByteOffset() { return byteOffset; }
+
+    /**
+     * Returns the parsed story if parsing succeeded, otherwise empty Optional
+     */
+    public Optional<JiraStory> getStory() {
+        return Optional.ofNullable(story);
+    }
+
+    /**
+     * Returns the error that stopped this file from parsing, otherwise empty Optional.
+     * For a story rejected with a diagnostic, an IllegalArgumentException describing it.
+     */
+    public Optional<Exception> getError() {
+        if (error == null && diagnostic != null) {
+            return Optional.of(new IllegalArgumentException(diagnostic.toString()));
+        }
+        return Optional.ofNullable(error);
+    }
+
+    /**
+     * Returns why the story text was rejected, if it was read but did not parse
+     */
+    public Optional<ParseDiagnostic> getDiagnostic() {
+        return Optional.ofNullable(diagnostic);
+    }
+
+    public boolean isSuccess() {
+        return story != null;
+    }
+
+    @Override
+    public String toString() {
+        String location = byteOffset == 0 ? String.valueOf(source) : source + "@" + byteOffset;
+        return isSuccess()
+            ? "StoryParseResult{" + location + ", " + story + "}"
+            : "StoryParseResult{" + location + ", error="
+                + (diagnostic != null ? diagnostic : error.getMessage()) + "}";
+    }
+}
@@ -0,0 +1,92 @@
+package an.story.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import an.story.domain_model.JiraStory;
+
+/**
+ * A whole parsed corpus in one binary file, loaded without re-parsing markup.
+ *
+ * Layout: magic, StoryCodec.FORMAT_VERSION, story count, then each story in
+ * StoryCodec form. A snapshot written by another format version is rejected
+ * with an IOException, so callers fall back to parsing and write a new one.
+ * Reading maps the file and decodes straight from the mapping.
+ */
+public final class StorySnapshot {
+    private static final int MAGIC = 0x4A53534E; // "JSSN"
+    private static final int HEADER_BYTES = 12;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private StorySnapshot() {
+    }
+
+    /**
+     * Write the stories to the file, replacing it atomically
+     *
+     * @throws IOException also when a story holds a string over StoryCodec's
+     *         limit, which could not be read back; the file is left as it was
+     */
+    public static void write(Collection<JiraStory> stories, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(StoryCodec.FORMAT_VERSION);
+                out.writeInt(stories.size());
+                for (JiraStory story : stories) {
+                    StoryCodec.write(story, out);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Read every story from the file, in the order they were written
+     */
+    public static List<JiraStory> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " is larger than 2 GB; split the corpus");
+            }
+            ByteBufferDataInput in = new ByteBufferDataInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            if (size < HEADER_BYTES || in.readInt() != MAGIC) {
+                throw new IOException("Not a story snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version != StoryCodec.FORMAT_VERSION) {
+                throw new IOException("Snapshot " + file + " has format version " + version
+                    + ", expected " + StoryCodec.FORMAT_VERSION);
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt snapshot " + file + ": negative story count " + count);
+            }
+            List<JiraStory> stories = new ArrayList<>(Math.min(count, 1 << 16));
+            for (int i = 0; i < count; i++) {
+                stories.add(StoryCodec.read(in));
+            }
+            return stories;
+        } catch (EOFException e) {
+            throw new IOException("Truncated snapshot: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package an.story.parser;
+
+/**
+ * Linear-time replacement for the value statement pattern
+ * {@code As a\s+([^,]+),\s*I want(?:\s+to)?\s+(.+?),\s*so that\s+(.+)}
+ * compiled with CASE_INSENSITIVE and DOTALL, searched with Matcher.find().
+ *
+ * Returns exactly the groups the pattern would, but never backtracks. At a
+ * candidate "As a", group 1 must end at the first comma after it, so
+ * everything after that comma depends on the comma alone and is evaluated at
+ * most once per comma. Group 2 ends at the first comma that is followed by
+ * "so that" and whitespace; positions already known to have no such comma
+ * after them are never scanned again. Every character is therefore looked at
+ * a bounded number of times, whatever the input.
+ */
+final class ValueStatementMatcher {
+    private static final String AS_A = "as a";
+    private static final String I_WANT = "i want";
+    private static final String TO = "to";
+    private static final String SO_THAT = "so that";
+
+    private final CharSequence text;
+    private final int length;
+
+    /** No tail comma (see isTail) at or after this position */
+    private int noTailFrom;
+
+    private ValueStatementMatcher(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+        this.noTailFrom = length;
+    }
+
+    /**
+     * Persona, goal and benefit as the pattern's groups 1 to 3, untrimmed, or null if it does not match
+     */
+    static String[] match(CharSequence text) {
+        return new ValueStatementMatcher(text).find();
+    }
+
+    private String[] find() {
+        int comma = -1;
+        int failedComma = -1;
+        for (int start = 0; start + AS_A.length() < length; start++) {
+            if (!regionMatches(start, AS_A)) {
+                continue;
+            }
+            int afterAsA = start + AS_A.length();
+            if (!isWhitespace(text.charAt(afterAsA))) {
+                continue;
+            }
+            if (comma < afterAsA) {
+                comma = indexOfComma(afterAsA);
+                if (comma < 0) {
+                    return null;
+                }
+            }
+            if (comma < afterAsA + 2 || comma == failedComma) {
+                continue;
+            }
+
+            String[] groups = matchAfterPersona(comma);
+            if (groups == null) {
+                // Any later start that reaches this comma fails the same way
+                failedComma = comma;
+                continue;
+            }
+            int personaStart = Math.min(afterAsA + whitespaceRun(afterAsA), comma - 1);
+            groups[0] = text.subSequence(personaStart, comma).toString();
+            return groups;
+        }
+        return null;
+    }
+
+    /**
+     * Everything from the comma closing group 1; groups[0] is left for the caller
+     */
+    private String[] matchAfterPersona(int comma) {
+        int want = comma + 1 + whitespaceRun(comma + 1);
+        if (!regionMatches(want, I_WANT)) {
+            return null;
+        }
+        int afterWant = want + I_WANT.length();
+
+        // (?:\s+to)? is greedy, so the pattern tries it first and falls back to skipping it
+        int spaceBeforeTo = whitespaceRun(afterWant);
+        if (spaceBeforeTo > 0 && regionMatches(afterWant + spaceBeforeTo, TO)) {
+            String[] groups = matchGoalAndBenefit(afterWant + spaceBeforeTo + TO.length());
+            if (groups != null) {
+                return groups;
+            }
+        }
+        return matchGoalAndBenefit(afterWant);
+    }
+
+    /**
+     * {@code \s+(.+?),\s*so that\s+(.+)} at the position
+     */
+    private String[] matchGoalAndBenefit(int from) {
+        int space = whitespaceRun(from);
+        if (space == 0) {
+            return null;
+        }
+        int goalStart = from + space;
+        int goalEnd = firstTail(goalStart + 1);
+        if (goalEnd < 0) {
+            // \s+ gives back its last character, letting a comma right after the whitespace end the goal
+            if (space < 2 || !isTail(goalStart)) {
+                return null;
+            }
+            goalEnd = goalStart;
+            goalStart--;
+        }
+
+        int soThat = goalEnd + 1 + whitespaceRun(goalEnd + 1);
+        int afterSoThat = soThat + SO_THAT.length();
+        int benefitStart = Math.min(afterSoThat + whitespaceRun(afterSoThat), length - 1);
+        return new String[] {
+            null,
+            text.subSequence(goalStart, goalEnd).toString(),
+            text.subSequence(benefitStart, length).toString()
+        };
+    }
+
+    /**
+     * First tail comma at or after the position, or -1
+     */
+    private int firstTail(int from) {
+        if (from >= noTailFrom) {
+            return -1;
+        }
+        for (int i = from; i < noTailFrom; i++) {
+            if (text.charAt(i) == ',' && isTail(i)) {
+                return i;
+            }
+        }
+        noTailFrom = from;
+        return -1;
+    }
+
+    /**
+     * {@code ,\s*so that\s+.} at the position, i.e. a comma that can end group 2
+     */
+    private boolean isTail(int comma) {
+        if (comma >= length || text.charAt(comma) != ',') {
+            return false;
+        }
+        int soThat = comma + 1 + whitespaceRun(comma + 1);
+        if (!regionMatches(soThat, SO_THAT)) {
+            return false;
+        }
+        int afterSoThat = soThat + SO_THAT.length();
+        return length - afterSoThat >= 2 && isWhitespace(text.charAt(afterSoThat));
+    }
+
+    private int indexOfComma(int from) {
+        for (int i = from; i < length; i++) {
+            if (text.charAt(i) == ',') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int whitespaceRun(int from) {
+        int i = from;
+        while (i < length && isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i - from;
+    }
+
+    /**
+     * ASCII-only case folding, as CASE_INSENSITIVE does without UNICODE_CASE
+     */
+    private boolean regionMatches(int offset, String lowerTarget) {
+        if (offset < 0 || offset + lowerTarget.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < lowerTarget.length(); i++) {
+            char c = text.charAt(offset + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != lowerTarget.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Same set as regex \s */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,174 @@
+package an.story.server;
+
+import java.util.List;
+
+import an.story.domain_model.AcceptanceCriterion;
+import an.story.domain_model.JiraStory;
+import an.story.domain_model.Requirement;
+import an.story.domain_model.ServiceTopology;
+import an.story.domain_model.ValueStatement;
+import an.story.parser.ParseDiagnostic;
+
+/**
+ * Writes the server's JSON responses. The shapes are small and fixed, so
+ * they are written directly rather than through a JSON library.
+ */
+final class StoryJson {
+
+    private StoryJson() {
+    }
+
+    /**
+     * {"story": ..., "topology": ..., "feature": "..."}
+     */
+    static String parsed(JiraStory story, ServiceTopology topology, String feature) {
+        StringBuilder json = new StringBuilder(1024 + feature.length());
+        json.append("{\"story\":");
+        appendStory(json, story);
+        json.append(",\"topology\":");
+        appendTopology(json, topology);
+        json.append(",\"feature\":");
+        appendString(json, feature);
+        return json.append('}').toString();
+    }
+
+    /**
+     * {"error": {"reason": "...", "message": "...", "panel": "...", "line": n}}
+     */
+    static String diagnostic(ParseDiagnostic diagnostic) {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"error\":{\"reason\":");
+        appendString(json, diagnostic.getReason().name());
+        json.append(",\"message\":");
+        appendString(json, diagnostic.getMessage());
+        if (diagnostic.getPanel() != null) {
+            json.append(",\"panel\":");
+            appendString(json, diagnostic.getPanel().name());
+        }
+        if (diagnostic.getLine() > 0) {
+            json.append(",\"line\":").append(diagnostic.getLine());
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * {"error": {"reason": "...", "message": "..."}} for failures that are not parse diagnostics
+     */
+    static String error(String reason, String message) {
+        StringBuilder json = new StringBuilder(96);
+        json.append("{\"error\":{\"reason\":");
+        appendString(json, reason);
+        json.append(",\"message\":");
+        appendString(json, message);
+        return json.append("}}").toString();
+    }
+
+    static String health(int inFlight, int maxConcurrent) {
+        return "{\"status\":\"UP\",\"inFlight\":" + inFlight + ",\"maxConcurrent\":" + maxConcurrent + "}";
+    }
+
+    private static void appendStory(StringBuilder json, JiraStory story) {
+        json.append("{\"valueStatement\":");
+        ValueStatement valueStatement = story.getValueStatement();
+        if (valueStatement == null) {
+            json.append("null");
+        } else {
+            json.append("{\"persona\":");
+            appendString(json, valueStatement.getPersona());
+            json.append(",\"goal\":");
+            appendString(json, valueStatement.getGoal());
+            json.append(",\"benefit\":");
+            appendString(json, valueStatement.getBenefit());
+            json.append('}');
+        }
+
+        json.append(",\"requirements\":[");
+        List<Requirement> requirements = story.getRequirements();
+        for (int i = 0; i < requirements.size(); i++) {
+            Requirement requirement = requirements.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"number\":").append(requirement.getNumber()).append(",\"text\":");
+            appendString(json, requirement.getText());
+            json.append(",\"services\":");
+            appendStrings(json, requirement.getServices());
+            json.append(",\"events\":");
+            appendStrings(json, requirement.getEvents());
+            json.append(",\"schemas\":");
+            appendStrings(json, requirement.getSchemas());
+            json.append('}');
+        }
+
+        json.append("],\"acceptanceCriteria\":[");
+        List<AcceptanceCriterion> criteria = story.getAcceptanceCriteria();
+        for (int i = 0; i < criteria.size(); i++) {
+            AcceptanceCriterion criterion = criteria.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"scenario\":");
+            appendString(json, criterion.getScenarioName());
+            json.append(",\"steps\":[");
+            for (int s = 0; s < criterion.getStepCount(); s++) {
+                if (s > 0) {
+                    json.append(',');
+                }
+                json.append("{\"kind\":");
+                appendString(json, criterion.getStepKind(s).name());
+                json.append(",\"text\":");
+                appendString(json, criterion.getStep(s));
+                json.append('}');
+            }
+            json.append("]}");
+        }
+        json.append("]}");
+    }
+
+    private static void appendTopology(StringBuilder json, ServiceTopology topology) {
+        json.append("{\"services\":");
+        appendStrings(json, topology.getServices());
+        json.append(",\"events\":");
+        appendStrings(json, topology.getEvents());
+        json.append(",\"schemas\":");
+        appendStrings(json, topology.getSchemas());
+        json.append('}');
+    }
+
+    private static void appendStrings(StringBuilder json, List<String> values) {
+        json.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendString(json, values.get(i));
+        }
+        json.append(']');
+    }
+
+    static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,181 @@
+package an.story.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import an.story.domain_model.JiraStory;
+import an.story.gherkin_generator.command.GenerateFeatureFileFromStoryCommand;
+import an.story.gherkin_generator.command.GenerationContext;
+import an.story.parser.JiraStoryParser;
+import an.story.parser.StoryParseResult;
+
+/**
+ * Long-running HTTP front end for the parser, so many clients share one
+ * warmed-up JVM instead of each paying startup and JIT warm-up.
+ *
+ * POST /parse takes story text as the UTF-8 request body and answers with the
+ * parsed story, its service topology and the generated feature file as JSON,
+ * or 400 with the parse diagnostic. GET /health reports the load.
+ *
+ * Each request runs on its own virtual thread when the JVM has them (Java 21
+ * and later) and on a cached platform thread pool otherwise. At most
+ * maxConcurrent requests are parsed at once; requests beyond that are turned
+ * away with 503 rather than queued, so an overloaded server answers quickly.
+ *
+ * Extracted names go through SymbolTable.shared(), whose canonical() stops
+ * adding names at a fixed limit, so client text cannot grow it without bound.
+ */
+public final class StoryServer implements AutoCloseable {
+    public static final int DEFAULT_MAX_BODY_BYTES = 1024 * 1024;
+
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private final JiraStoryParser parser;
+    private final int maxConcurrent;
+    private final int maxBodyBytes;
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public StoryServer(InetSocketAddress address, JiraStoryParser parser, int maxConcurrent) throws IOException {
+        this(address, parser, maxConcurrent, DEFAULT_MAX_BODY_BYTES);
+    }
+
+    public StoryServer(InetSocketAddress address, JiraStoryParser parser, int maxConcurrent, int maxBodyBytes)
+            throws IOException {
+        if (parser == null) {
+            throw new IllegalArgumentException("Parser cannot be null");
+        }
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1: " + maxConcurrent);
+        }
+        if (maxBodyBytes < 1) {
+            throw new IllegalArgumentException("Body size limit must be at least 1: " + maxBodyBytes);
+        }
+        this.parser = parser;
+        this.maxConcurrent = maxConcurrent;
+        this.maxBodyBytes = maxBodyBytes;
+        this.permits = new Semaphore(maxConcurrent);
+        this.executor = newRequestExecutor();
+        this.http = HttpServer.create(address, 0);
+        http.setExecutor(executor);
+        http.createContext("/parse", this::handleParse);
+        http.createContext("/health", this::handleHealth);
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    /**
+     * The bound port; useful when the server was created on port 0
+     */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Stop accepting connections and give in-flight requests up to a second to finish
+     */
+    @Override
+    public void close() {
+        http.stop(1);
+        executor.shutdownNow();
+    }
+
+    private void handleParse(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, StoryJson.error("METHOD_NOT_ALLOWED", "Use POST with the story text as the body"));
+                return;
+            }
+            if (!permits.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, StoryJson.error("BUSY", "Concurrency limit of " + maxConcurrent + " reached"));
+                return;
+            }
+            inFlight.incrementAndGet();
+            try {
+                String storyText = readBody(exchange.getRequestBody());
+                if (storyText == null) {
+                    respond(exchange, 413, StoryJson.error("TOO_LARGE",
+                        "Story is larger than " + maxBodyBytes + " bytes"));
+                    return;
+                }
+                StoryParseResult result = parser.tryParse(storyText);
+                if (!result.isSuccess()) {
+                    respond(exchange, 400, StoryJson.diagnostic(result.getDiagnostic().orElseThrow()));
+                    return;
+                }
+                JiraStory story = result.getStory().orElseThrow();
+                GenerationContext context = new GenerationContext(story);
+                String feature = new GenerateFeatureFileFromStoryCommand(context).execute();
+                respond(exchange, 200, StoryJson.parsed(story, context.getTopology(), feature));
+            } catch (RuntimeException e) {
+                respond(exchange, 500, StoryJson.error("INTERNAL_ERROR", String.valueOf(e.getMessage())));
+            } finally {
+                inFlight.decrementAndGet();
+                permits.release();
+            }
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            respond(exchange, 200, StoryJson.health(inFlight.get(), maxConcurrent));
+        }
+    }
+
+    /**
+     * The body as UTF-8 text, or null if it is larger than the limit
+     */
+    private String readBody(InputStream body) throws IOException {
+        byte[] bytes = body.readNBytes(maxBodyBytes + 1);
+        if (bytes.length > maxBodyBytes) {
+            return null;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * A virtual thread per request where available, looked up reflectively so
+     * the build keeps targeting Java 17
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "story-server-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
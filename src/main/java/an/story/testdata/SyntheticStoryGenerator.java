@@ -0,0 +1,314 @@
+package an.story.testdata;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates valid panel-format Jira stories for load and scale testing.
+ *
+ * Output is a pure function of the seed, the settings and the story index:
+ * story 42 of a seed is the same text whether it is generated alone, in a
+ * stream or in parallel. Services and events are drawn from fixed-size pools,
+ * so a corpus repeats names the way a real backlog does. Pathological shapes
+ * are opt-in: long And-chains, requirements continued over many lines, and a
+ * large notes panel (including "----" rules) the parser has to skip.
+ */
+public final class SyntheticStoryGenerator {
+    private static final String[] SERVICE_WORDS = {
+        "data", "address", "credit", "identity", "fraud", "ledger", "pricing", "notification",
+        "document", "payment", "account", "limit", "consent", "audit", "risk", "onboarding"
+    };
+    private static final String[] SERVICE_ROLES = {
+        "cleanse", "lookup", "check", "scoring", "gateway", "sync", "review", "router"
+    };
+    private static final String[] EVENT_SUBJECTS = {
+        "Applicant", "Application", "Account", "Payment", "Document", "Address", "Limit", "Consent"
+    };
+    private static final String[] EVENT_VERBS = {
+        "Received", "Cleansed", "Validated", "Rejected", "Approved", "Errored", "Updated", "Archived"
+    };
+    private static final String[] PERSONAS = {
+        "product owner", "credit analyst", "compliance officer", "support agent", "data steward"
+    };
+    private static final String[] CONDITIONS = {
+        "the applicant is older than 120 years", "the address cannot be verified",
+        "the credit limit is exceeded", "a required document is missing",
+        "the identity check times out", "the consent has expired"
+    };
+    private static final String[] FIELDS = {
+        "an error message", "the validation rule", "a correlation id", "the rejection reason",
+        "the reviewer name", "the source system"
+    };
+
+    private final long seed;
+    private final int requirements;
+    private final int services;
+    private final int events;
+    private final int scenarios;
+    private final int andChain;
+    private final int continuationLines;
+    private final int notesBytes;
+
+    private SyntheticStoryGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.requirements = builder.requirements;
+        this.services = builder.services;
+        this.events = builder.events;
+        this.scenarios = builder.scenarios;
+        this.andChain = builder.andChain;
+        this.continuationLines = builder.continuationLines;
+        this.notesBytes = builder.notesBytes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The story at the given index
+     */
+    public String story(int index) {
+        StringBuilder text = new StringBuilder(256 + requirements * 96 + scenarios * 192 + notesBytes);
+        appendStory(text, index);
+        return text.toString();
+    }
+
+    /**
+     * Stories 0 to count - 1, generated lazily in order
+     */
+    public Stream<String> stories(int count) {
+        return IntStream.range(0, count).mapToObj(this::story);
+    }
+
+    /**
+     * Write stories 0 to count - 1 as story-00000.story, story-00001.story, ... under the directory
+     */
+    public void writeStoryFiles(Path dir, int count) throws IOException {
+        Files.createDirectories(dir);
+        int digits = Math.max(5, String.valueOf(Math.max(0, count - 1)).length());
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.setLength(0);
+            appendStory(text, i);
+            Path file = dir.resolve(String.format("story-%0" + digits + "d.story", i));
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.append(text);
+            }
+        }
+    }
+
+    /**
+     * Write stories 0 to count - 1 into one bulk export, separated by "----" lines,
+     * as StoryExportReader reads it. Only one story is held in memory at a time.
+     */
+    public void writeExport(Path file, int count) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        StringBuilder text = new StringBuilder();
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    out.write("----\n");
+                }
+                text.setLength(0);
+                appendStory(text, i);
+                out.append(text);
+            }
+        }
+    }
+
+    private void appendStory(StringBuilder text, int index) {
+        SplittableRandom random = new SplittableRandom(mix(seed, index));
+
+        text.append("{panel:title=Value Statement | titleBGColor=#b9d9ed}\n")
+            .append(" As a ").append(pick(random, PERSONAS))
+            .append(", I want story ").append(index).append(" to reject applicants when ")
+            .append(pick(random, CONDITIONS)).append(", so that we\n")
+            .append(" keep downstream systems consistent.\n")
+            .append("{panel}\n\n");
+
+        text.append("{panel:title=Requirements | titleBGColor=#b9d9ed}\n");
+        for (int i = 1; i <= requirements; i++) {
+            text.append(i).append(". ");
+            appendRequirement(text, random);
+            text.append('\n');
+            for (int line = 0; line < continuationLines; line++) {
+                text.append("   and also when ").append(pick(random, CONDITIONS))
+                    .append(" (note ").append(line + 1).append(")\n");
+            }
+        }
+        text.append("{panel}\n\n");
+
+        text.append("{panel:title=Acceptance Criteria | titleBGColor=#b9d9ed}\n");
+        for (int i = 1; i <= scenarios; i++) {
+            String event = event(random.nextInt(events));
+            text.append("Scenario: Case ").append(i).append(" when ").append(pick(random, CONDITIONS)).append('\n');
+            text.append("Given the \"").append(service(random.nextInt(services))).append("\" service is running\n");
+            appendAnds(text, random, "the applicant has record ");
+            text.append("When the application is processed\n");
+            appendAnds(text, random, "the review step is triggered for record ");
+            text.append("Then the \"").append(event).append("\" event is produced\n");
+            appendAnds(text, random, "the audit entry exists for record ");
+        }
+        text.append("{panel}\n");
+
+        if (notesBytes > 0) {
+            text.append("\n{panel:title=Implementation Notes}\n");
+            int target = text.length() + notesBytes;
+            int paragraph = 0;
+            while (text.length() < target) {
+                if (++paragraph % 10 == 0) {
+                    text.append("----\n");
+                }
+                text.append("Check ").append(pick(random, FIELDS)).append(" against \"")
+                    .append(service(random.nextInt(services))).append("\" when ")
+                    .append(pick(random, CONDITIONS)).append(".\n");
+            }
+            text.append("{panel}\n");
+        }
+    }
+
+    private void appendRequirement(StringBuilder text, SplittableRandom random) {
+        String service = service(random.nextInt(services));
+        String event = event(random.nextInt(events));
+        switch (random.nextInt(5)) {
+            case 0:
+                text.append("update the \"").append(service).append("\" service to reject applicants when ")
+                    .append(pick(random, CONDITIONS));
+                break;
+            case 1:
+                text.append("ensure that the \"").append(event).append("\" event is triggered when ")
+                    .append(pick(random, CONDITIONS));
+                break;
+            case 2:
+                text.append("update the avro schema for the \"").append(event).append("\" event to include ")
+                    .append(pick(random, FIELDS));
+                break;
+            case 3:
+                text.append("the \"").append(service).append("\" service consumes the \"").append(event)
+                    .append("\" event and publishes the \"").append(event(random.nextInt(events)))
+                    .append("\" event");
+                break;
+            default:
+                text.append("keep an audit log of ").append(pick(random, FIELDS));
+                break;
+        }
+    }
+
+    private void appendAnds(StringBuilder text, SplittableRandom random, String prefix) {
+        for (int i = 0; i < andChain; i++) {
+            text.append("And ").append(prefix).append(random.nextInt(1_000_000)).append('\n');
+        }
+    }
+
+    /**
+     * Pool entry n: two words, e.g. "data cleanse", unique for the first 128 entries
+     */
+    static String service(int n) {
+        String name = SERVICE_WORDS[n % SERVICE_WORDS.length] + " "
+            + SERVICE_ROLES[(n / SERVICE_WORDS.length) % SERVICE_ROLES.length];
+        int round = n / (SERVICE_WORDS.length * SERVICE_ROLES.length);
+        return round == 0 ? name : name + " " + (round + 1);
+    }
+
+    /**
+     * Pool entry n: camel case, e.g. "aoaApplicantCleansed", unique for the first 64 entries
+     */
+    static String event(int n) {
+        String name = "aoa" + EVENT_SUBJECTS[n % EVENT_SUBJECTS.length]
+            + EVENT_VERBS[(n / EVENT_SUBJECTS.length) % EVENT_VERBS.length];
+        int round = n / (EVENT_SUBJECTS.length * EVENT_VERBS.length);
+        return round == 0 ? name : name + (round + 1);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Independent, well-spread seed per story (SplitMix64 finaliser)
+     */
+    private static long mix(long seed, int index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static final class Builder {
+        private long seed = 42;
+        private int requirements = 10;
+        private int services = 8;
+        private int events = 16;
+        private int scenarios = 5;
+        private int andChain = 1;
+        private int continuationLines;
+        private int notesBytes;
+
+        private Builder() {
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder requirements(int requirements) {
+            this.requirements = atLeast(0, requirements, "Requirements");
+            return this;
+        }
+
+        /** Size of the service name pool */
+        public Builder services(int services) {
+            this.services = atLeast(1, services, "Services");
+            return this;
+        }
+
+        /** Size of the event name pool */
+        public Builder events(int events) {
+            this.events = atLeast(1, events, "Events");
+            return this;
+        }
+
+        public Builder scenarios(int scenarios) {
+            this.scenarios = atLeast(0, scenarios, "Scenarios");
+            return this;
+        }
+
+        /** And steps after each Given, When and Then */
+        public Builder andChain(int andChain) {
+            this.andChain = atLeast(0, andChain, "And-chain length");
+            return this;
+        }
+
+        /** Unnumbered lines continuing each requirement */
+        public Builder continuationLines(int continuationLines) {
+            this.continuationLines = atLeast(0, continuationLines, "Continuation lines");
+            return this;
+        }
+
+        /** Approximate size of an extra notes panel the parser skips; 0 for none */
+        public Builder notesBytes(int notesBytes) {
+            this.notesBytes = atLeast(0, notesBytes, "Notes size");
+            return this;
+        }
+
+        public SyntheticStoryGenerator build() {
+            return new SyntheticStoryGenerator(this);
+        }
+
+        private static int atLeast(int minimum, int value, String name) {
+            if (value < minimum) {
+                throw new IllegalArgumentException(name + " must be at least " + minimum + ": " + value);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package an.story.topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import an.story.domain_model.JiraStory;
+import an.story.domain_model.Requirement;
+import an.story.domain_model.SymbolTable;
+
+/**
+ * Directed graph of services, events and schemas built from requirements.
+ *
+ * Within a requirement every named service is linked to every named event:
+ * service to event when the service produces it, event to service when the
+ * service consumes it. A requirement naming events but no service links them
+ * to the services named elsewhere in the story, as stories usually introduce
+ * the service once. The direction comes from the last verb before the event's
+ * mention ("consumes", "subscribes", "listens", "receives" versus
+ * "publishes", "produces", "emits", "raises", "sends", "triggers"), carried
+ * over from the previous event when there is none and defaulting to produce.
+ * Each event also points at its Avro schema when the requirement names one.
+ *
+ * Edges are reference counted per story, so putting a re-parsed story only
+ * retracts and adds that story's edges. Adjacency is a BitSet per node and
+ * transitive closures are cached until the edge set next changes.
+ */
+public final class DependencyGraph {
+    private static final String[] CONSUME_VERBS = { "consum", "subscrib", "listen", "receiv" };
+    private static final String[] PRODUCE_VERBS = { "publish", "produc", "emit", "raise", "send", "trigger" };
+    private static final long[] NO_EDGES = new long[0];
+
+    private final SymbolTable symbols;
+    private final Map<Long, Integer> nodeIds = new HashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private BitSet[] successors = new BitSet[64];
+    private BitSet[] predecessors = new BitSet[64];
+
+    private final Map<Long, Integer> edgeCounts = new HashMap<>();
+    private final Map<String, long[]> edgesByStory = new HashMap<>();
+    private BitSet[] downstreamCache = new BitSet[64];
+
+    public DependencyGraph() {
+        this(SymbolTable.shared());
+    }
+
+    public DependencyGraph(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Add the story's edges under the key, retracting the edges it added before
+     */
+    public synchronized void put(String storyKey, JiraStory story) {
+        if (storyKey == null) {
+            throw new IllegalArgumentException("Story key cannot be null");
+        }
+        if (story == null) {
+            throw new IllegalArgumentException("Story cannot be null");
+        }
+        long[] edges = edgesOf(story);
+        long[] previous = edgesByStory.put(storyKey, edges);
+        boolean changed = false;
+        for (long edge : edges) {
+            changed |= retain(edge);
+        }
+        if (previous != null) {
+            for (long edge : previous) {
+                changed |= release(edge);
+            }
+        }
+        if (changed) {
+            downstreamCache = new BitSet[successors.length];
+        }
+    }
+
+    /**
+     * Retract the edges the story added; returns false if it was never put
+     */
+    public synchronized boolean remove(String storyKey) {
+        long[] previous = edgesByStory.remove(storyKey);
+        if (previous == null) {
+            return false;
+        }
+        boolean changed = false;
+        for (long edge : previous) {
+            changed |= release(edge);
+        }
+        if (changed) {
+            downstreamCache = new BitSet[successors.length];
+        }
+        return true;
+    }
+
+    /**
+     * Everything reachable from the node, not including the node itself unless it lies on a cycle
+     */
+    public synchronized Set<Node> downstreamOf(Node node) {
+        int id = idOf(node);
+        return id < 0 ? Set.of() : toNodes(downstream(id));
+    }
+
+    /**
+     * Everything the node can be reached from
+     */
+    public synchronized Set<Node> upstreamOf(Node node) {
+        int id = idOf(node);
+        return id < 0 ? Set.of() : toNodes(reach(id, predecessors));
+    }
+
+    public synchronized boolean reaches(Node from, Node to) {
+        int fromId = idOf(from);
+        int toId = idOf(to);
+        return fromId >= 0 && toId >= 0 && downstream(fromId).get(toId);
+    }
+
+    /**
+     * Nodes within the given number of hops downstream, mapped to their distance, nearest first
+     */
+    public synchronized Map<Node, Integer> impactRadius(Node node, int hops) {
+        if (hops < 0) {
+            throw new IllegalArgumentException("Hops cannot be negative: " + hops);
+        }
+        int id = idOf(node);
+        if (id < 0) {
+            return Map.of();
+        }
+        Map<Node, Integer> distances = new LinkedHashMap<>();
+        BitSet seen = new BitSet(nodes.size());
+        seen.set(id);
+        BitSet frontier = new BitSet(nodes.size());
+        frontier.set(id);
+        for (int distance = 1; distance <= hops && !frontier.isEmpty(); distance++) {
+            BitSet next = new BitSet(nodes.size());
+            for (int n = frontier.nextSetBit(0); n >= 0; n = frontier.nextSetBit(n + 1)) {
+                next.or(successors[n]);
+            }
+            next.andNot(seen);
+            seen.or(next);
+            for (int n = next.nextSetBit(0); n >= 0; n = next.nextSetBit(n + 1)) {
+                distances.put(nodes.get(n), distance);
+            }
+            frontier = next;
+        }
+        return distances;
+    }
+
+    public synchronized int edgeCount() {
+        return edgeCounts.size();
+    }
+
+    private BitSet downstream(int id) {
+        BitSet cached = downstreamCache[id];
+        if (cached == null) {
+            cached = reach(id, successors);
+            downstreamCache[id] = cached;
+        }
+        return cached;
+    }
+
+    private BitSet reach(int id, BitSet[] adjacency) {
+        BitSet reached = new BitSet(nodes.size());
+        BitSet frontier = (BitSet) adjacency[id].clone();
+        while (!frontier.isEmpty()) {
+            reached.or(frontier);
+            BitSet next = new BitSet(nodes.size());
+            for (int n = frontier.nextSetBit(0); n >= 0; n = frontier.nextSetBit(n + 1)) {
+                BitSet cached = adjacency == successors ? downstreamCache[n] : null;
+                next.or(cached != null ? cached : adjacency[n]);
+            }
+            next.andNot(reached);
+            frontier = next;
+        }
+        return reached;
+    }
+
+    private Set<Node> toNodes(BitSet ids) {
+        Set<Node> result = new LinkedHashSet<>();
+        for (int n = ids.nextSetBit(0); n >= 0; n = ids.nextSetBit(n + 1)) {
+            result.add(nodes.get(n));
+        }
+        return result;
+    }
+
+    private long[] edgesOf(JiraStory story) {
+        Set<String> storyServices = new LinkedHashSet<>();
+        for (Requirement requirement : story.getRequirements()) {
+            storyServices.addAll(requirement.getServices());
+        }
+
+        long[] edges = NO_EDGES;
+        int count = 0;
+        for (Requirement requirement : story.getRequirements()) {
+            Collection<String> services = requirement.getServices().isEmpty()
+                ? storyServices
+                : requirement.getServices();
+            List<String> events = requirement.getEvents();
+            List<String> schemas = requirement.getSchemas();
+            String lowerText = requirement.getText().toLowerCase(Locale.ROOT);
+            boolean consumes = false;
+            int scanFrom = 0;
+            for (int e = 0; e < events.size(); e++) {
+                String event = events.get(e);
+                int mention = lowerText.indexOf('"' + event.toLowerCase(Locale.ROOT) + '"', scanFrom);
+                if (mention >= 0) {
+                    consumes = consumes(lowerText, scanFrom, mention, consumes);
+                    scanFrom = mention + event.length() + 2;
+                }
+                int eventNode = node(NodeKind.EVENT, event);
+                for (String service : services) {
+                    int serviceNode = node(NodeKind.SERVICE, service);
+                    long edge = consumes ? edge(eventNode, serviceNode) : edge(serviceNode, eventNode);
+                    if (count == edges.length) {
+                        edges = Arrays.copyOf(edges, Math.max(8, count * 2));
+                    }
+                    edges[count++] = edge;
+                }
+                if (e < schemas.size()) {
+                    if (count == edges.length) {
+                        edges = Arrays.copyOf(edges, Math.max(8, count * 2));
+                    }
+                    edges[count++] = edge(eventNode, node(NodeKind.SCHEMA, schemas.get(e)));
+                }
+            }
+        }
+        return count == edges.length ? edges : Arrays.copyOf(edges, count);
+    }
+
+    /**
+     * Direction given by the last verb in text[from, to); the carried direction when there is none
+     */
+    private static boolean consumes(String lowerText, int from, int to, boolean carried) {
+        int lastConsume = lastIndexOf(lowerText, CONSUME_VERBS, from, to);
+        int lastProduce = lastIndexOf(lowerText, PRODUCE_VERBS, from, to);
+        if (lastConsume < 0 && lastProduce < 0) {
+            return carried;
+        }
+        return lastConsume > lastProduce;
+    }
+
+    private static int lastIndexOf(String text, String[] verbs, int from, int to) {
+        int last = -1;
+        for (String verb : verbs) {
+            int at = text.lastIndexOf(verb, to - verb.length());
+            if (at >= from && at > last) {
+                last = at;
+            }
+        }
+        return last;
+    }
+
+    private boolean retain(long edge) {
+        Integer count = edgeCounts.merge(edge, 1, Integer::sum);
+        if (count == 1) {
+            successors[from(edge)].set(to(edge));
+            predecessors[to(edge)].set(from(edge));
+            return true;
+        }
+        return false;
+    }
+
+    private boolean release(long edge) {
+        Integer count = edgeCounts.computeIfPresent(edge, (key, value) -> value == 1 ? null : value - 1);
+        if (count == null) {
+            successors[from(edge)].clear(to(edge));
+            predecessors[to(edge)].clear(from(edge));
+            return true;
+        }
+        return false;
+    }
+
+    private int idOf(Node node) {
+        int symbol = symbols.idOf(node.getName());
+        if (symbol < 0) {
+            return -1;
+        }
+        Integer id = nodeIds.get(nodeKey(node.getKind(), symbol));
+        return id != null ? id : -1;
+    }
+
+    private int node(NodeKind kind, String name) {
+        long key = nodeKey(kind, symbols.intern(name));
+        Integer id = nodeIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        int created = nodes.size();
+        nodes.add(new Node(kind, name));
+        nodeIds.put(key, created);
+        if (created == successors.length) {
+            successors = Arrays.copyOf(successors, created * 2);
+            predecessors = Arrays.copyOf(predecessors, created * 2);
+        }
+        if (created >= downstreamCache.length) {
+            downstreamCache = Arrays.copyOf(downstreamCache, successors.length);
+        }
+        successors[created] = new BitSet();
+        predecessors[created] = new BitSet();
+        return created;
+    }
+
+    private static long nodeKey(NodeKind kind, int symbol) {
+        return ((long) kind.ordinal() << 32) | (symbol & 0xffffffffL);
+    }
+
+    private static long edge(int from, int to) {
+        return ((long) from << 32) | (to & 0xffffffffL);
+    }
+
+    private static int from(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    private static int to(long edge) {
+        return (int) edge;
+    }
+
+    public enum NodeKind {
+        SERVICE, EVENT, SCHEMA
+    }
+
+    /**
+     * A service, event or schema by name
+     */
+    public static final class Node {
+        private final NodeKind kind;
+        private final String name;
+
+        public Node(NodeKind kind, String name) {
+            if (kind == null || name == null) {
+                throw new IllegalArgumentException("Node kind and name cannot be null");
+            }
+            this.kind = kind;
+            this.name = name;
+        }
+
+        public static Node service(String name) { return new Node(NodeKind.SERVICE, name); }
+        public static Node event(String name) { return new Node(NodeKind.EVENT, name); }
+        public static Node schema(String name) { return new Node(NodeKind.SCHEMA, name); }
+
+        public NodeKind getKind() { return kind; }
+        public String getName() { return name; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Node)) return false;
+            Node other = (Node) o;
+            return kind == other.kind && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * kind.hashCode() + name.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return kind.name().toLowerCase(Locale.ROOT) + ":" + name;
+        }
+    }
+}
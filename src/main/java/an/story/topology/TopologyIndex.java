@@ -0,0 +1,379 @@
+package an.story.topology;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import an.story.domain_model.JiraStory;
+import an.story.domain_model.Requirement;
+import an.story.domain_model.SymbolTable;
+
+/**
+ * Inverted index from service, event and schema names to the stories and
+ * requirements that mention them, across a whole backlog.
+ *
+ * Each story is registered under a caller-chosen key and gets a dense int
+ * document ID. Per name the index keeps a sorted int[] of document IDs and a
+ * sorted long[] of (document, requirement number) pairs, addressed by the
+ * name's SymbolTable ID, so a lookup is an array access plus a copy of the
+ * posting. Putting a story again replaces its entries; removing it frees its
+ * document ID for reuse. Reads run concurrently, writes are exclusive.
+ */
+public final class TopologyIndex {
+    private static final int[] NO_DOCS = new int[0];
+    private static final long[] NO_REFS = new long[0];
+
+    private final SymbolTable symbols;
+    private final Field services = new Field();
+    private final Field events = new Field();
+    private final Field schemas = new Field();
+
+    private final Map<String, StoryEntry> entriesByKey = new HashMap<>();
+    private StoryEntry[] entriesByDoc = new StoryEntry[64];
+    private int[] freeDocs = new int[16];
+    private int freeDocCount;
+    private int nextDoc;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TopologyIndex() {
+        this(SymbolTable.shared());
+    }
+
+    /**
+     * Index over a specific table; must be the table the requirements intern into
+     */
+    public TopologyIndex(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Index the story under the key, replacing whatever was indexed under it before
+     */
+    public void put(String storyKey, JiraStory story) {
+        if (storyKey == null) {
+            throw new IllegalArgumentException("Story key cannot be null");
+        }
+        if (story == null) {
+            throw new IllegalArgumentException("Story cannot be null");
+        }
+        lock.writeLock().lock();
+        try {
+            removeEntry(storyKey);
+            int doc = allocateDoc();
+            StoryEntry entry = new StoryEntry(storyKey, doc,
+                services.add(doc, story, Requirement::getServices),
+                events.add(doc, story, Requirement::getEvents),
+                schemas.add(doc, story, Requirement::getSchemas));
+            entriesByKey.put(storyKey, entry);
+            entriesByDoc[doc] = entry;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the story indexed under the key; returns false if there was none
+     */
+    public boolean remove(String storyKey) {
+        lock.writeLock().lock();
+        try {
+            return removeEntry(storyKey);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String storyKey) {
+        lock.readLock().lock();
+        try {
+            return entriesByKey.containsKey(storyKey);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entriesByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> storiesWithService(String service) { return stories(services, service); }
+    public List<String> storiesWithEvent(String event) { return stories(events, event); }
+    public List<String> storiesWithSchema(String schema) { return stories(schemas, schema); }
+
+    public List<RequirementRef> requirementsWithService(String service) { return requirements(services, service); }
+    public List<RequirementRef> requirementsWithEvent(String event) { return requirements(events, event); }
+    public List<RequirementRef> requirementsWithSchema(String schema) { return requirements(schemas, schema); }
+
+    /**
+     * Number of stories mentioning the service, without materialising their keys
+     */
+    public int serviceFrequency(String service) { return frequency(services, service); }
+    public int eventFrequency(String event) { return frequency(events, event); }
+    public int schemaFrequency(String schema) { return frequency(schemas, schema); }
+
+    private List<String> stories(Field field, String name) {
+        lock.readLock().lock();
+        try {
+            Postings postings = field.get(symbols.idOf(name));
+            if (postings == null) {
+                return List.of();
+            }
+            String[] keys = new String[postings.docCount];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = entriesByDoc[postings.docs[i]].key;
+            }
+            return List.of(keys);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<RequirementRef> requirements(Field field, String name) {
+        lock.readLock().lock();
+        try {
+            Postings postings = field.get(symbols.idOf(name));
+            if (postings == null) {
+                return List.of();
+            }
+            RequirementRef[] refs = new RequirementRef[postings.refCount];
+            for (int i = 0; i < refs.length; i++) {
+                long ref = postings.refs[i];
+                refs[i] = new RequirementRef(entriesByDoc[docOf(ref)].key, (int) ref);
+            }
+            return List.of(refs);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int frequency(Field field, String name) {
+        lock.readLock().lock();
+        try {
+            Postings postings = field.get(symbols.idOf(name));
+            return postings != null ? postings.docCount : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeEntry(String storyKey) {
+        StoryEntry entry = entriesByKey.remove(storyKey);
+        if (entry == null) {
+            return false;
+        }
+        services.remove(entry.doc, entry.services);
+        events.remove(entry.doc, entry.events);
+        schemas.remove(entry.doc, entry.schemas);
+        entriesByDoc[entry.doc] = null;
+        if (freeDocCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeDocCount * 2);
+        }
+        freeDocs[freeDocCount++] = entry.doc;
+        return true;
+    }
+
+    private int allocateDoc() {
+        if (freeDocCount > 0) {
+            return freeDocs[--freeDocCount];
+        }
+        if (nextDoc == entriesByDoc.length) {
+            entriesByDoc = Arrays.copyOf(entriesByDoc, nextDoc * 2);
+        }
+        return nextDoc++;
+    }
+
+    private static long ref(int doc, int requirementNumber) {
+        return ((long) doc << 32) | (requirementNumber & 0xffffffffL);
+    }
+
+    private static int docOf(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    /**
+     * A requirement by story key and requirement number
+     */
+    public static final class RequirementRef {
+        private final String storyKey;
+        private final int requirementNumber;
+
+        public RequirementRef(String storyKey, int requirementNumber) {
+            this.storyKey = storyKey;
+            this.requirementNumber = requirementNumber;
+        }
+
+        public String getStoryKey() { return storyKey; }
+        public int getRequirementNumber() { return requirementNumber; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RequirementRef)) return false;
+            RequirementRef other = (RequirementRef) o;
+            return requirementNumber == other.requirementNumber && storyKey.equals(other.storyKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * storyKey.hashCode() + requirementNumber;
+        }
+
+        @Override
+        public String toString() {
+            return storyKey + "#" + requirementNumber;
+        }
+    }
+
+    /**
+     * What a story contributed, so removal touches only its own postings
+     */
+    private static final class StoryEntry {
+        final String key;
+        final int doc;
+        final int[] services;
+        final int[] events;
+        final int[] schemas;
+
+        StoryEntry(String key, int doc, int[] services, int[] events, int[] schemas) {
+            this.key = key;
+            this.doc = doc;
+            this.services = services;
+            this.events = events;
+            this.schemas = schemas;
+        }
+    }
+
+    private interface Names {
+        List<String> of(Requirement requirement);
+    }
+
+    /**
+     * Postings for one kind of name, indexed by symbol ID
+     */
+    private final class Field {
+        private Postings[] bySymbol = new Postings[64];
+
+        Postings get(int symbol) {
+            if (symbol < 0 || symbol >= bySymbol.length) {
+                return null;
+            }
+            Postings postings = bySymbol[symbol];
+            return postings != null && postings.docCount > 0 ? postings : null;
+        }
+
+        /**
+         * Post the story's names; returns the distinct symbol IDs it used
+         */
+        int[] add(int doc, JiraStory story, Names names) {
+            int[] used = NO_DOCS;
+            int usedCount = 0;
+            for (Requirement requirement : story.getRequirements()) {
+                for (String name : names.of(requirement)) {
+                    int symbol = symbols.intern(name);
+                    Postings postings = postings(symbol);
+                    if (postings.addDoc(doc)) {
+                        if (usedCount == used.length) {
+                            used = Arrays.copyOf(used, Math.max(4, usedCount * 2));
+                        }
+                        used[usedCount++] = symbol;
+                    }
+                    postings.addRef(ref(doc, requirement.getNumber()));
+                }
+            }
+            return usedCount == used.length ? used : Arrays.copyOf(used, usedCount);
+        }
+
+        void remove(int doc, int[] used) {
+            for (int symbol : used) {
+                bySymbol[symbol].removeDoc(doc);
+            }
+        }
+
+        private Postings postings(int symbol) {
+            if (symbol >= bySymbol.length) {
+                bySymbol = Arrays.copyOf(bySymbol, Math.max(bySymbol.length * 2, symbol + 1));
+            }
+            Postings postings = bySymbol[symbol];
+            if (postings == null) {
+                postings = new Postings();
+                bySymbol[symbol] = postings;
+            }
+            return postings;
+        }
+    }
+
+    /**
+     * Sorted document IDs and sorted (document, requirement) refs for one name
+     */
+    private static final class Postings {
+        int[] docs = NO_DOCS;
+        int docCount;
+        long[] refs = NO_REFS;
+        int refCount;
+
+        /** Returns false if the document was already posted */
+        boolean addDoc(int doc) {
+            int at = Arrays.binarySearch(docs, 0, docCount, doc);
+            if (at >= 0) {
+                return false;
+            }
+            at = -at - 1;
+            if (docCount == docs.length) {
+                docs = Arrays.copyOf(docs, Math.max(4, docCount + (docCount >> 1)));
+            }
+            System.arraycopy(docs, at, docs, at + 1, docCount - at);
+            docs[at] = doc;
+            docCount++;
+            return true;
+        }
+
+        void addRef(long ref) {
+            int at = Arrays.binarySearch(refs, 0, refCount, ref);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (refCount == refs.length) {
+                refs = Arrays.copyOf(refs, Math.max(4, refCount + (refCount >> 1)));
+            }
+            System.arraycopy(refs, at, refs, at + 1, refCount - at);
+            refs[at] = ref;
+            refCount++;
+        }
+
+        /** Drops the document and all of its refs, which sit together in sorted order */
+        void removeDoc(int doc) {
+            int at = Arrays.binarySearch(docs, 0, docCount, doc);
+            if (at >= 0) {
+                System.arraycopy(docs, at + 1, docs, at, docCount - at - 1);
+                docCount--;
+            }
+            int from = lowerBound(ref(doc, 0));
+            int to = doc == Integer.MAX_VALUE ? refCount : lowerBound(ref(doc + 1, 0));
+            System.arraycopy(refs, to, refs, from, refCount - to);
+            refCount -= to - from;
+            if (docCount == 0) {
+                docs = NO_DOCS;
+                refs = NO_REFS;
+            }
+        }
+
+        private int lowerBound(long key) {
+            int at = Arrays.binarySearch(refs, 0, refCount, key);
+            if (at < 0) {
+                return -at - 1;
+            }
+            // Only an exact (doc, 0) ref can match; it is the first of its document
+            return at;
+        }
+    }
+}
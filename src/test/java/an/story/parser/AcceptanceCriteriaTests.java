@@ -5,6 +5,7 @@ import org.junit.jupiter.api.DisplayName;
 
 import an.story.domain_model.JiraStory;
 import an.story.domain_model.AcceptanceCriterion;
+import an.story.domain_model.StepKind;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("Acceptance Criteria Parsing")
@@ -55,4 +56,31 @@ public class AcceptanceCriteriaTests extends JiraStoryParserTest{
         assertEquals(2, ac.getWhenStatements().size());
         assertEquals(2, ac.getThenStatements().size());
     }
+    
+    @Test
+    @DisplayName("Should keep steps in source order in an immutable story")
+    void shouldKeepStepsInSourceOrder() {
+        String storyText = "{panel:title=Value Statement}\n" +
+            "As a user, I want something, so that benefit.\n" +
+            "{panel}\n" +
+            "{panel:title=Acceptance Criteria}\n" +
+            "Scenario: Ordered steps\n" +
+            "Given a precondition\n" +
+            "When an action occurs\n" +
+            "Then an outcome happens\n" +
+            "And another outcome happens\n" +
+            "{panel}";
+        
+        JiraStory story = parser.parse(storyText);
+        AcceptanceCriterion ac = story.getAcceptanceCriteria().get(0);
+        
+        assertEquals(4, ac.getStepCount());
+        assertEquals(StepKind.WHEN, ac.getStepKind(1));
+        assertEquals("another outcome happens", ac.getStep(3));
+        assertEquals(StepKind.THEN, ac.getStepKind(3));
+        assertSame(ac.getThenStatements(), ac.getThenStatements());
+        assertThrows(UnsupportedOperationException.class, () -> ac.getThenStatements().add("more"));
+        assertThrows(UnsupportedOperationException.class, () -> story.getAcceptanceCriteria().clear());
+        assertThrows(UnsupportedOperationException.class, () -> story.getRequirements().add(null));
+    }
 }
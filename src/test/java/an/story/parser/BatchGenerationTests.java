@@ -0,0 +1,273 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import an.story.domain_model.JiraStory;
+import an.story.gherkin_generator.BatchTestGenerator;
+import an.story.gherkin_generator.TestPackageWriter;
+import an.story.gherkin_generator.command.StepRegistry;
+import an.story.testdata.SyntheticStoryGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Batch Test Generation")
+public class BatchGenerationTests extends JiraStoryParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should generate a package per story in parallel and report failures")
+    void shouldGeneratePackagePerStory() throws IOException {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        SyntheticStoryGenerator.builder().seed(11).requirements(5).scenarios(3).build()
+            .writeStoryFiles(stories.resolve("payments"), 20);
+        Files.writeString(stories.resolve("broken.story"), "{panel:title=Value Statement}\nnope\n{panel}");
+        TestPackageWriter writer = new TestPackageWriter(output, "com.acme.tests");
+
+        BatchTestGenerator.Report report = new BatchTestGenerator(parser, writer, 4).generate(stories);
+
+        assertEquals(21, report.getStories());
+        assertEquals(20, report.getGenerated());
+        assertEquals(40, report.getFilesWritten());
+        assertEquals(List.of(Paths.get("broken.story")), List.copyOf(report.getFailed().keySet()));
+        assertTrue(report.getStoriesPerSecond() > 0);
+
+        assertEquals("com.acme.tests.payments.story_00007", writer.packageOf(Paths.get("payments/story-00007.story")));
+        Path packageDir = output.resolve("java/com/acme/tests/payments/story_00007");
+        List<Path> stepClasses;
+        try (Stream<Path> files = Files.list(packageDir)) {
+            stepClasses = files.collect(Collectors.toList());
+        }
+        assertEquals(1, stepClasses.size());
+        assertTrue(Files.readString(stepClasses.get(0)).startsWith("package com.acme.tests.payments.story_00007;"));
+        assertTrue(Files.exists(output.resolve(
+            "resources/com/acme/tests/payments/story_00007/story-00007.feature")));
+    }
+
+    @Test
+    @DisplayName("Should skip unchanged outputs and remove those of deleted stories on the next run")
+    void shouldSkipUnchangedOutputsAcrossRuns() throws IOException {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        SyntheticStoryGenerator.builder().seed(5).requirements(4).scenarios(2).build()
+            .writeStoryFiles(stories, 10);
+        new BatchTestGenerator(parser, new TestPackageWriter(output, "an.story.generated"), 2).generate(stories);
+        Path unchanged = output.resolve("resources/an/story/generated/story_00001/story-00001.feature");
+        Path removed = output.resolve("resources/an/story/generated/story_00002/story-00002.feature");
+        assertTrue(Files.exists(removed));
+        Files.setLastModifiedTime(unchanged, FileTime.fromMillis(0));
+
+        Path edited = stories.resolve("story-00003.story");
+        Files.writeString(edited, Files.readString(edited).replace("Case 1", "Edited case"));
+        Files.delete(stories.resolve("story-00002.story"));
+        // A fresh writer, as in a new build, picks up the manifest the first run saved
+        BatchTestGenerator.Report report = new BatchTestGenerator(parser,
+            new TestPackageWriter(output, "an.story.generated"), 2).generate(stories);
+
+        assertEquals(9, report.getGenerated());
+        assertEquals(1, report.getFilesWritten());
+        assertEquals(1, report.getRemoved());
+        assertEquals(FileTime.fromMillis(0), Files.getLastModifiedTime(unchanged));
+        assertFalse(Files.exists(removed));
+        assertFalse(Files.exists(removed.getParent()));
+        assertTrue(Files.readString(output.resolve(
+            "resources/an/story/generated/story_00003/story-00003.feature")).contains("Edited case"));
+        try (Stream<Path> files = Files.walk(output)) {
+            assertFalse(files.anyMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    @DisplayName("Should define steps shared between stories once, parameterizing quoted values")
+    void shouldDefineSharedStepsOnce() throws IOException {
+        assertEquals("the  {string} event is produced \\(again\\)",
+            StepRegistry.toExpression("the  \"aoaApplicantDataCleansed\" event is produced (again)"));
+
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        SyntheticStoryGenerator.builder().seed(7).requirements(4).scenarios(3).build()
+            .writeStoryFiles(stories, 6);
+        BatchTestGenerator.Report report = new BatchTestGenerator(parser,
+            new TestPackageWriter(output, "an.story.generated"), 2, true).generate(stories);
+
+        assertEquals(6, report.getGenerated());
+        assertTrue(report.getSharedSteps() > 0);
+        String shared = Files.readString(output.resolve("java/an/story/generated/SharedSteps.java"));
+        assertTrue(shared.startsWith("package an.story.generated;"));
+        assertTrue(shared.contains("@Given(\"the {string} service is running\")\n"
+            + "    public void theParamServiceIsRunning(String arg0) {"));
+        try (Stream<Path> files = Files.walk(output.resolve("java/an/story/generated"))) {
+            for (Path steps : (Iterable<Path>) files.filter(path -> path.toString().endsWith("Steps.java")
+                    && !path.endsWith("SharedSteps.java"))::iterator) {
+                assertFalse(Files.readString(steps).contains("service is running"), steps.toString());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a story whose package another story already uses")
+    void shouldRejectPackageCollisions() throws IOException {
+        JiraStory story = parser.parse(JiraStoryParserTest.completeStoryText);
+        TestPackageWriter writer = new TestPackageWriter(tempDir.resolve("out"), "com.acme.tests");
+        Path first = Paths.get("Team", "a-b.story");
+        Path second = Paths.get("team", "a_b.story");
+        assertEquals(writer.packageOf(first), writer.packageOf(second));
+
+        writer.write(first, story);
+        IllegalArgumentException collision = assertThrows(IllegalArgumentException.class,
+            () -> writer.write(second, story));
+        assertTrue(collision.getMessage().contains("com.acme.tests.team.a_b"));
+        writer.saveManifest();
+
+        // The claim survives a restart through the manifest
+        TestPackageWriter restarted = new TestPackageWriter(tempDir.resolve("out"), "com.acme.tests");
+        assertThrows(IllegalArgumentException.class, () -> restarted.write(second, story));
+        restarted.delete(first);
+        assertEquals(2, restarted.write(second, story).size());
+    }
+
+    @Test
+    @DisplayName("Should generate a story renamed to a path mapping to its old package")
+    void shouldGenerateStoryRenamedIntoItsOwnPackage() throws IOException {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        Path original = stories.resolve("Team/a-b.story");
+        Files.createDirectories(original.getParent());
+        Files.writeString(original, JiraStoryParserTest.completeStoryText);
+        new BatchTestGenerator(parser, new TestPackageWriter(output, "com.acme.tests"), 1).generate(stories);
+
+        Path renamed = stories.resolve("team/a_b.story");
+        Files.createDirectories(renamed.getParent());
+        Files.move(original, renamed);
+        BatchTestGenerator.Report report = new BatchTestGenerator(parser,
+            new TestPackageWriter(output, "com.acme.tests"), 1).generate(stories);
+
+        assertEquals(Map.of(), report.getFailed());
+        assertEquals(1, report.getGenerated());
+        assertEquals(1, report.getRemoved());
+        assertTrue(Files.isDirectory(output.resolve("resources/com/acme/tests/team/a_b")));
+    }
+
+    @Test
+    @DisplayName("Should define a step expression matching every scenario step in the features")
+    void shouldMatchFeatureStepsToExpressions() throws IOException {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        SyntheticStoryGenerator.builder().seed(3).requirements(2).scenarios(2).build()
+            .writeStoryFiles(stories, 3);
+        Files.writeString(stories.resolve("spaced-1.story"), spacedStory(""));
+        Files.writeString(stories.resolve("spaced-2.story"), spacedStory("And the  other\tthing happens\n"));
+
+        new BatchTestGenerator(parser, new TestPackageWriter(output, "an.story.generated"), 2, true)
+            .generate(stories);
+
+        List<Pattern> expressions = new ArrayList<>();
+        Pattern annotation = Pattern.compile("@(?:Given|When|Then)\\(\"((?:[^\"\\\\]|\\\\.)*)\"\\)");
+        List<Path> features;
+        try (Stream<Path> files = Files.walk(output)) {
+            features = files.filter(path -> path.toString().endsWith(".feature")).collect(Collectors.toList());
+        }
+        try (Stream<Path> files = Files.walk(output)) {
+            for (Path steps : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".java"))::iterator) {
+                Matcher matcher = annotation.matcher(Files.readString(steps));
+                while (matcher.find()) {
+                    expressions.add(expressionPattern(javaString(matcher.group(1))));
+                }
+            }
+        }
+        assertEquals(5, features.size());
+        for (Path feature : features) {
+            boolean inScenario = false;
+            for (String line : Files.readAllLines(feature)) {
+                inScenario |= line.startsWith("  Scenario:");
+                Matcher step = Pattern.compile("^    (?:Given|When|Then|And) (.*)$").matcher(line);
+                if (inScenario && step.matches()) {
+                    String text = step.group(1);
+                    assertTrue(expressions.stream().anyMatch(expression -> expression.matcher(text).matches()),
+                        feature.getFileName() + ": no step definition matches \"" + text + "\"");
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove the step class of a story that fails in shared steps mode")
+    void shouldRemoveStaleStepClassOfFailedStory() throws IOException {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        Files.createDirectories(stories);
+        Files.writeString(stories.resolve("spaced-1.story"), spacedStory(""));
+        Files.writeString(stories.resolve("spaced-2.story"), spacedStory("And the  other\tthing happens\n"));
+        TestPackageWriter writer = new TestPackageWriter(output, "an.story.generated");
+        new BatchTestGenerator(parser, writer, 1).generate(stories);
+        Path ownSteps = output.resolve("java/an/story/generated/spaced_2");
+        assertTrue(Files.isDirectory(ownSteps));
+
+        Files.writeString(stories.resolve("spaced-2.story"), "{panel:title=Value Statement}\nnope\n{panel}");
+        BatchTestGenerator.Report report = new BatchTestGenerator(parser,
+            new TestPackageWriter(output, "an.story.generated"), 1, true).generate(stories);
+
+        assertEquals(1, report.getFailed().size());
+        assertFalse(Files.exists(ownSteps));
+        assertFalse(Files.exists(output.resolve("resources/an/story/generated/spaced_2")));
+        assertTrue(Files.exists(output.resolve("java/an/story/generated/SharedSteps.java")));
+    }
+
+    private static String spacedStory(String extraStep) {
+        return "{panel:title=Value Statement}\n"
+            + "As a tester, I want steps spaced as written, so that Cucumber matches them.\n"
+            + "{panel}\n"
+            + "{panel:title=Acceptance Criteria}\n"
+            + "Scenario: Spaced steps\n"
+            + "Given the  \"data cleanse\" service is running (again)\n"
+            + "When the applicant  applies\n"
+            + "Then the \"aoaApplicantDataCleansed\"   event is produced\n"
+            + extraStep
+            + "{panel}\n";
+    }
+
+    /**
+     * Regex equivalent of a generated Cucumber expression, which only uses {string} and escapes
+     */
+    private static Pattern expressionPattern(String expression) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '\\' && i + 1 < expression.length()) {
+                regex.append(Pattern.quote(String.valueOf(expression.charAt(++i))));
+            } else if (expression.startsWith("{string}", i)) {
+                regex.append("\"[^\"]*\"");
+                i += "{string}".length() - 1;
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static String javaString(String literal) {
+        StringBuilder value = new StringBuilder(literal.length());
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            value.append(c == '\\' ? literal.charAt(++i) : c);
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import an.story.domain_model.JiraStory;
+import an.story.testdata.SyntheticStoryGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Batch Parsing")
+public class BatchParseTests extends JiraStoryParserTest {
+
+    @TempDir
+    Path storyDir;
+
+    @Test
+    @DisplayName("Should parse every story file and report bad files individually")
+    void shouldParseDirectoryWithPerFileResults() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(storyDir.resolve("story-" + i + ".story"),
+                JiraStoryParserTest.completeStoryText, StandardCharsets.UTF_8);
+        }
+        Files.writeString(storyDir.resolve("broken.story"),
+            "{panel:title=Value Statement}\nnot a value statement\n{panel}", StandardCharsets.UTF_8);
+        Files.writeString(storyDir.resolve("notes.txt"), "ignored", StandardCharsets.UTF_8);
+
+        List<StoryParseResult> results;
+        try (Stream<StoryParseResult> stream = parser.parseAll(storyDir, 3)) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(11, results.size());
+        assertEquals(10, results.stream().filter(StoryParseResult::isSuccess).count());
+
+        StoryParseResult broken = results.get(0);
+        assertEquals("broken.story", broken.getSource().getFileName().toString());
+        assertFalse(broken.isSuccess());
+        assertTrue(broken.getError().isPresent());
+    }
+
+    @Test
+    @DisplayName("Should parse a generated corpus with pathological stories")
+    void shouldParseSyntheticCorpus() throws IOException {
+        SyntheticStoryGenerator generator = SyntheticStoryGenerator.builder()
+            .seed(7).requirements(30).scenarios(10).andChain(5).continuationLines(8).notesBytes(64 * 1024)
+            .build();
+        generator.writeStoryFiles(storyDir, 40);
+
+        List<StoryParseResult> results;
+        try (Stream<StoryParseResult> stream = parser.parseAll(storyDir, 4)) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(40, results.size());
+        assertTrue(results.stream().allMatch(StoryParseResult::isSuccess));
+        JiraStory first = results.get(0).getStory().orElseThrow();
+        assertEquals(30, first.getRequirements().size());
+        assertEquals(10, first.getAcceptanceCriteria().size());
+        assertEquals(6, first.getAcceptanceCriteria().get(0).getGivenStatements().size());
+        assertEquals(generator.story(0), Files.readString(results.get(0).getSource()));
+    }
+}
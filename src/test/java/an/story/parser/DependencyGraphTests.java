@@ -0,0 +1,73 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Map;
+import java.util.Set;
+
+import an.story.topology.DependencyGraph;
+import an.story.topology.DependencyGraph.Node;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Dependency Graph")
+public class DependencyGraphTests extends JiraStoryParserTest {
+
+    private static final String VALUE_STATEMENT = "{panel:title=Value Statement}\n" +
+        "As a clerk, I want clean data, so that reports are right.\n" +
+        "{panel}\n";
+
+    private String story(String... requirements) {
+        StringBuilder text = new StringBuilder(VALUE_STATEMENT).append("{panel:title=Requirements}\n");
+        for (int i = 0; i < requirements.length; i++) {
+            text.append(i + 1).append(". ").append(requirements[i]).append('\n');
+        }
+        return text.append("{panel}").toString();
+    }
+
+    @Test
+    @DisplayName("Should link producers and consumers through events")
+    void shouldAnswerReachabilityAndImpactRadius() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.put("AOA-1", parser.parse(story(
+            "the \"intake\" service publishes the \"applicantReceived\" event")));
+        graph.put("AOA-2", parser.parse(story(
+            "the \"data cleanse\" service consumes the \"applicantReceived\" event " +
+            "and publishes the \"applicantCleansed\" event",
+            "update the avro schema for the \"applicantCleansed\" event")));
+        graph.put("AOA-3", parser.parse(story(
+            "the \"reporting\" service subscribes to the \"applicantCleansed\" event")));
+
+        Node intake = Node.service("intake");
+        assertTrue(graph.reaches(intake, Node.service("reporting")));
+        assertTrue(graph.downstreamOf(intake).contains(Node.schema("applicantCleansed.avsc")));
+        assertFalse(graph.reaches(Node.service("reporting"), intake));
+        assertEquals(Set.of(Node.service("intake"), Node.event("applicantReceived"),
+                            Node.service("data cleanse"), Node.event("applicantCleansed")),
+                     graph.upstreamOf(Node.service("reporting")));
+
+        Map<Node, Integer> radius = graph.impactRadius(intake, 2);
+        assertEquals(Integer.valueOf(1), radius.get(Node.event("applicantReceived")));
+        assertEquals(Integer.valueOf(2), radius.get(Node.service("data cleanse")));
+        assertFalse(radius.containsKey(Node.event("applicantCleansed")));
+    }
+
+    @Test
+    @DisplayName("Should retract a story's edges when it is re-parsed or removed")
+    void shouldUpdateIncrementally() {
+        DependencyGraph graph = new DependencyGraph();
+        String producer = story("the \"intake\" service publishes the \"applicantReceived\" event");
+        graph.put("AOA-1", parser.parse(producer));
+        graph.put("AOA-2", parser.parse(producer));
+        graph.put("AOA-3", parser.parse(story(
+            "the \"data cleanse\" service consumes the \"applicantReceived\" event")));
+        assertTrue(graph.reaches(Node.service("intake"), Node.service("data cleanse")));
+
+        graph.put("AOA-1", parser.parse(story("nothing to see here")));
+        assertTrue(graph.reaches(Node.service("intake"), Node.service("data cleanse")));
+
+        assertTrue(graph.remove("AOA-2"));
+        assertFalse(graph.reaches(Node.service("intake"), Node.service("data cleanse")));
+        assertEquals(1, graph.edgeCount());
+    }
+}
@@ -1,5 +1,7 @@
 package an.story.parser;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,4 +30,93 @@ public class ErrorHandlingTests extends JiraStoryParserTest{
         
         assertThrows(IllegalArgumentException.class, () -> parser.parse(storyText));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("Should report malformed stories as diagnostics without throwing")
+    void shouldReportDiagnosticsFromTryParse() {
+        String storyText = "{panel:title=Requirements}\n" +
+            "1. first requirement\n" +
+            "{panel}\n" +
+            "{panel:title=Value Statement}\n" +
+            "This is not a valid value statement format\n" +
+            "{panel}";
+        
+        StoryParseResult result = parser.tryParse(storyText);
+        
+        assertFalse(result.isSuccess());
+        ParseDiagnostic diagnostic = result.getDiagnostic().orElseThrow();
+        assertEquals(ParseDiagnostic.Reason.INVALID_VALUE_STATEMENT, diagnostic.getReason());
+        assertEquals(PanelKind.VALUE_STATEMENT, diagnostic.getPanel());
+        assertEquals(5, diagnostic.getLine());
+        assertFalse(diagnostic.toString().contains("not a valid"));
+        
+        assertEquals(ParseDiagnostic.Reason.EMPTY_STORY,
+                     parser.tryParse(null).getDiagnostic().orElseThrow().getReason());
+        assertEquals(ParseDiagnostic.Reason.MISSING_VALUE_STATEMENT,
+                     parser.tryParse("{panel:title=Requirements}\n1. a\n{panel}").getDiagnostic().orElseThrow().getReason());
+        assertTrue(parser.tryParse(JiraStoryParserTest.completeStoryText).isSuccess());
+    }
+    
+    @Test
+    @DisplayName("Should reject adversarial value statements in linear time")
+    void shouldRejectAdversarialValueStatementsQuickly() {
+        // Repeated near-misses: every "As a" has a persona and "I want", and there are
+        // thousands of commas, but no "so that" anywhere for the goal to end at
+        StringBuilder content = new StringBuilder("{panel:title=Value Statement}\n");
+        for (int i = 0; i < 20_000; i++) {
+            content.append("As a user, I want to pay, twice, so thatx, ");
+        }
+        String storyText = content.append("\n{panel}").toString();
+        
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(IllegalArgumentException.class, () -> parser.parse(storyText));
+            assertEquals(ParseDiagnostic.Reason.INVALID_VALUE_STATEMENT,
+                         parser.tryParse(storyText).getDiagnostic().orElseThrow().getReason());
+        });
+    }
+    
+    @Test
+    @DisplayName("Should end the goal at the first comma followed by so that")
+    void shouldKeepValueStatementGroupBoundaries() {
+        String storyText = "{panel:title=Value Statement}\n" +
+            "Intro, then as a  busy user, I want to pay, quickly, so that I save time, so that\nI smile\n" +
+            "{panel}";
+        
+        var valueStatement = parser.parse(storyText).getValueStatement();
+        
+        assertEquals("busy user", valueStatement.getPersona());
+        assertEquals("pay, quickly", valueStatement.getGoal());
+        assertEquals("I save time, so that\nI smile", valueStatement.getBenefit());
+    }
+    
+    @Test
+    @DisplayName("Should report requirement numbers that do not fit an int")
+    void shouldReportOverflowingRequirementNumbers() {
+        String storyText = "{panel:title=Value Statement}\n" +
+            "As a user, I want to pay, so that I save time\n" +
+            "{panel}\n" +
+            "{panel:title=Requirements}\n" +
+            "99999999999. an enormous requirement number\n" +
+            "{panel}";
+        
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(storyText));
+        ParseDiagnostic diagnostic = parser.tryParse(storyText).getDiagnostic().orElseThrow();
+        assertEquals(ParseDiagnostic.Reason.INVALID_REQUIREMENT_NUMBER, diagnostic.getReason());
+        assertEquals(PanelKind.REQUIREMENTS, diagnostic.getPanel());
+        assertEquals(5, diagnostic.getLine());
+    }
+    
+    @Test
+    @DisplayName("Should abort stories that exceed the parse time budget")
+    void shouldAbortStoriesOverTheTimeBudget() {
+        JiraStoryParser budgeted = new JiraStoryParser(Duration.ofNanos(1));
+        
+        assertThrows(IllegalArgumentException.class, () -> budgeted.parse(JiraStoryParserTest.completeStoryText));
+        ParseDiagnostic diagnostic = budgeted.tryParse(JiraStoryParserTest.completeStoryText)
+            .getDiagnostic().orElseThrow();
+        assertEquals(ParseDiagnostic.Reason.TIME_BUDGET_EXCEEDED, diagnostic.getReason());
+        
+        assertTrue(new JiraStoryParser(Duration.ofMinutes(1)).tryParse(JiraStoryParserTest.completeStoryText).isSuccess());
+        assertThrows(IllegalArgumentException.class, () -> new JiraStoryParser(Duration.ZERO));
+    }
+}
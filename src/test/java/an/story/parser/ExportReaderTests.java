@@ -0,0 +1,106 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import an.story.testdata.SyntheticStoryGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bulk Export Reading")
+public class ExportReaderTests extends JiraStoryParserTest {
+
+    @TempDir
+    Path exportDir;
+
+    @Test
+    @DisplayName("Should split an export into stories and report byte offsets")
+    void shouldSplitExportIntoStories() throws IOException {
+        String story = JiraStoryParserTest.completeStoryText.trim() + "\n";
+        String broken = "{panel:title=Value Statement}\nnot a value statement\n{panel}\n";
+        String export = story + "----\n" + broken + "----\n" + story + "----\n\n";
+        Path exportFile = exportDir.resolve("export.txt");
+        Files.writeString(exportFile, export, StandardCharsets.UTF_8);
+
+        List<StoryParseResult> results;
+        try (Stream<StoryParseResult> records = parser.parseExport(exportFile)) {
+            results = records.collect(Collectors.toList());
+        }
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(0, results.get(0).getByteOffset());
+        assertEquals(story.getBytes(StandardCharsets.UTF_8).length + 5, results.get(1).getByteOffset());
+        assertEquals(3, results.get(2).getStory().get().getRequirements().size());
+    }
+
+    @Test
+    @DisplayName("Should not split on a delimiter inside a panel")
+    void shouldIgnoreDelimiterInsidePanel() throws IOException {
+        String story = "{panel:title=Value Statement}\n" +
+            "As a user, I want something, so that benefit.\n" +
+            "{panel}\n" +
+            "{panel:title=Requirements}\n" +
+            "1. first requirement\n" +
+            "----\n" +
+            "2. second requirement\n" +
+            "{panel}\n";
+        Path exportFile = exportDir.resolve("export.txt");
+        Files.writeString(exportFile, story + "----\n" + story, StandardCharsets.UTF_8);
+
+        try (StoryExportReader reader = new StoryExportReader(exportFile, parser)) {
+            assertEquals(2, reader.stories().filter(s -> s.getRequirements().size() == 2).count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip records over the size limit and carry on")
+    void shouldSkipOversizedRecords() throws IOException {
+        StringBuilder huge = new StringBuilder("{panel:title=Value Statement}\n");
+        for (int i = 0; i < 200; i++) {
+            huge.append("padding line ").append(i).append('\n');
+        }
+        huge.append("{panel}\n");
+        Path exportFile = exportDir.resolve("export.txt");
+        Files.writeString(exportFile, huge + "----\n" + JiraStoryParserTest.completeStoryText,
+            StandardCharsets.UTF_8);
+
+        try (StoryExportReader reader = new StoryExportReader(exportFile, parser, "----", 1024)) {
+            List<StoryParseResult> results = reader.records().collect(Collectors.toList());
+            assertEquals(2, results.size());
+            assertFalse(results.get(0).isSuccess());
+            assertTrue(results.get(1).isSuccess());
+        }
+    }
+
+    @Test
+    @DisplayName("Should read back every story of a generated export")
+    void shouldReadGeneratedExport() throws IOException {
+        SyntheticStoryGenerator generator = SyntheticStoryGenerator.builder()
+            .seed(11).requirements(5).scenarios(3).notesBytes(4096).build();
+        Path exportFile = exportDir.resolve("generated.txt");
+        generator.writeExport(exportFile, 25);
+
+        List<StoryParseResult> results;
+        try (StoryExportReader reader = new StoryExportReader(exportFile, parser);
+             Stream<StoryParseResult> records = reader.records()) {
+            results = records.collect(Collectors.toList());
+        }
+
+        assertEquals(25, results.size());
+        assertTrue(results.stream().allMatch(StoryParseResult::isSuccess));
+        assertEquals(parser.parse(generator.story(24)).getValueStatement().toString(),
+                     results.get(24).getStory().orElseThrow().getValueStatement().toString());
+    }
+}
@@ -0,0 +1,60 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Set;
+
+import an.story.domain_model.JiraStory;
+import an.story.domain_model.ServiceTopology;
+import an.story.gherkin_generator.command.GenerateCompleteTestPackageCommand;
+import an.story.gherkin_generator.command.GenerateFeatureFileFromStoryCommand;
+import an.story.gherkin_generator.command.GenerateStepDefinitionsCommand;
+import an.story.gherkin_generator.command.GenerationContext;
+import an.story.gherkin_generator.model.TestPackage;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Generation Context")
+public class GenerationContextTests extends JiraStoryParserTest {
+
+    @Test
+    @DisplayName("Should derive each value once per test package")
+    void shouldDeriveValuesOncePerPackage() {
+        JiraStory story = parser.parse(JiraStoryParserTest.completeStoryText);
+        GenerationContext context = new GenerationContext(story);
+
+        new GenerateCompleteTestPackageCommand(context, "com.acme.tests").execute();
+        ServiceTopology topology = context.getTopology();
+        Set<String> uniqueSteps = context.getUniqueSteps();
+        String featureName = context.getFeatureName();
+        String className = context.getStepDefinitionClassName();
+        String step = uniqueSteps.iterator().next();
+        String methodName = context.getMethodName(step);
+        String annotation = context.getAnnotation(step);
+
+        new GenerateCompleteTestPackageCommand(context, "com.acme.tests").execute();
+
+        // Recomputing any of these would yield an equal but distinct instance
+        assertNotSame(topology, parser.extractTopology(story));
+        assertSame(topology, context.getTopology());
+        assertSame(uniqueSteps, context.getUniqueSteps());
+        assertSame(featureName, context.getFeatureName());
+        assertSame(className, context.getStepDefinitionClassName());
+        assertSame(methodName, context.getMethodName(step));
+        assertSame(annotation, context.getAnnotation(step));
+    }
+
+    @Test
+    @DisplayName("Should include step definitions in the requested package")
+    void shouldIncludeStepDefinitionsInCompletePackage() {
+        JiraStory story = parser.parse(JiraStoryParserTest.completeStoryText);
+
+        TestPackage testPackage = new GenerateCompleteTestPackageCommand(story, "com.acme.tests").execute();
+
+        assertTrue(testPackage.hasStepDefinitions());
+        String stepDefinitions = testPackage.getStepDefinitions().get();
+        assertTrue(stepDefinitions.startsWith("package com.acme.tests;"));
+        assertEquals(new GenerateStepDefinitionsCommand(story, "com.acme.tests").execute(), stepDefinitions);
+        assertEquals(new GenerateFeatureFileFromStoryCommand(story).execute(), testPackage.getFeatureFile());
+    }
+}
@@ -0,0 +1,66 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import an.story.domain_model.JiraStory;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Incremental Re-parsing")
+public class IncrementalParseTests extends JiraStoryParserTest {
+
+    @Test
+    @DisplayName("Should only re-parse the edited acceptance criteria panel")
+    void shouldReuseUnchangedPanels() {
+        JiraStory previous = parser.reparse(null, JiraStoryParserTest.completeStoryText);
+        String edited = JiraStoryParserTest.completeStoryText.replace(
+            "Scenario: User age is valid", "Scenario: User age is within limits");
+
+        JiraStory story = parser.reparse(previous, edited);
+
+        assertSame(previous.getValueStatement(), story.getValueStatement());
+        assertSame(previous.getRequirements(), story.getRequirements());
+        assertNotSame(previous.getAcceptanceCriteria(), story.getAcceptanceCriteria());
+        assertEquals("User age is within limits", story.getAcceptanceCriteria().get(0).getScenarioName());
+    }
+
+    @Test
+    @DisplayName("Should reuse unchanged requirements inside an edited requirements panel")
+    void shouldReuseUnchangedRequirements() {
+        JiraStory previous = parser.reparse(null, JiraStoryParserTest.completeStoryText);
+        String edited = JiraStoryParserTest.completeStoryText.replace(
+            "greater than 120 years", "greater than 130 years");
+
+        JiraStory story = parser.reparse(previous, edited);
+
+        assertNotSame(previous.getRequirements().get(0), story.getRequirements().get(0));
+        assertTrue(story.getRequirements().get(0).getText().contains("130 years"));
+        assertSame(previous.getRequirements().get(1), story.getRequirements().get(1));
+        assertSame(previous.getRequirements().get(2), story.getRequirements().get(2));
+        assertSame(previous.getAcceptanceCriteria(), story.getAcceptanceCriteria());
+    }
+
+    @Test
+    @DisplayName("Should fall back to a full parse without fingerprints")
+    void shouldFallBackToFullParse() {
+        JiraStory previous = parser.parse(JiraStoryParserTest.completeStoryText);
+        JiraStory handBuilt = new JiraStory(previous.getValueStatement(), null, null);
+
+        JiraStory story = parser.reparse(handBuilt, JiraStoryParserTest.completeStoryText);
+
+        assertEquals(3, story.getRequirements().size());
+        assertNotNull(story.getPanelFingerprints());
+    }
+
+    @Test
+    @DisplayName("Should only fingerprint panels for stories parsed through reparse")
+    void shouldFingerprintOnlyOnReparse() {
+        JiraStory parsed = parser.parse(JiraStoryParserTest.completeStoryText);
+        assertNull(parsed.getPanelFingerprints());
+
+        JiraStory edited = parser.reparse(parsed, JiraStoryParserTest.completeStoryText);
+        assertEquals(ContentHash.LENGTH, edited.getPanelFingerprints().getRequirements().length);
+        JiraStory again = parser.reparse(edited, JiraStoryParserTest.completeStoryText);
+        assertSame(edited.getRequirements(), again.getRequirements());
+    }
+}
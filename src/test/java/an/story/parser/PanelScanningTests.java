@@ -0,0 +1,84 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import an.story.domain_model.JiraStory;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Panel Scanning")
+public class PanelScanningTests extends JiraStoryParserTest {
+
+    @TempDir
+    Path storyDir;
+
+    @Test
+    @DisplayName("Should parse the same story from a Reader")
+    void shouldParseFromReader() throws IOException {
+        JiraStory fromString = parser.parse(JiraStoryParserTest.completeStoryText);
+        JiraStory fromReader = parser.parseReader(new StringReader(JiraStoryParserTest.completeStoryText));
+
+        assertEquals(fromString.getValueStatement().toString(), fromReader.getValueStatement().toString());
+        assertEquals(fromString.getRequirements().size(), fromReader.getRequirements().size());
+        assertEquals(fromString.getAcceptanceCriteria().size(), fromReader.getAcceptanceCriteria().size());
+    }
+
+    @Test
+    @DisplayName("Should ignore a panel without a closing tag")
+    void shouldIgnoreUnterminatedPanel() {
+        String storyText = "{panel:title=Value Statement}\n" +
+            "As a user, I want something, so that benefit.\n" +
+            "{panel}\n" +
+            "{panel:title=Requirements}\n" +
+            "1. never closed\n";
+
+        JiraStory story = parser.parse(storyText);
+
+        assertNotNull(story.getValueStatement());
+        assertTrue(story.getRequirements().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should skip an empty panel title and keep scanning")
+    void shouldSkipEmptyPanelTitle() {
+        String storyText = "{panel:title=}\n" +
+            "{panel:title=Value Statement | titleBGColor=#b9d9ed}\n" +
+            "As a user, I want something, so that benefit.\n" +
+            "{panel}";
+
+        JiraStory story = parser.parse(storyText);
+
+        assertEquals("user", story.getValueStatement().getPersona());
+    }
+
+    @Test
+    @DisplayName("Should parse large mapped story files, ASCII or not")
+    void shouldParseLargeMappedFiles() throws IOException {
+        StringBuilder log = new StringBuilder();
+        while (log.length() < 200_000) {
+            log.append("pasted log line without panel markup\n");
+        }
+        String asciiStory = JiraStoryParserTest.completeStoryText + "\n{panel:title=Logs}\n" + log + "{panel}\n";
+        String unicodeStory = asciiStory.replace("product owner", "product owner \u00e9\u4e2d");
+
+        Path asciiFile = storyDir.resolve("ascii.story");
+        Path unicodeFile = storyDir.resolve("unicode.story");
+        Files.writeString(asciiFile, asciiStory, StandardCharsets.UTF_8);
+        Files.writeString(unicodeFile, unicodeStory, StandardCharsets.UTF_8);
+
+        JiraStory ascii = parser.parseFile(asciiFile);
+        JiraStory unicode = parser.parseFile(unicodeFile);
+
+        assertEquals(parser.parse(asciiStory).getValueStatement().toString(), ascii.getValueStatement().toString());
+        assertEquals(3, ascii.getRequirements().size());
+        assertEquals("Chase Bank product owner \u00e9\u4e2d", unicode.getValueStatement().getPersona());
+        assertEquals(1, unicode.getAcceptanceCriteria().size());
+    }
+}
@@ -0,0 +1,106 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import an.story.domain_model.JiraStory;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Parse Cache")
+public class ParseCacheTests extends JiraStoryParserTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    @DisplayName("Should reuse results for identical text and evict least recently used")
+    void shouldCacheInMemoryWithLruEviction() {
+        CachingStoryParser cache = new CachingStoryParser(parser, 2);
+        String other = JiraStoryParserTest.completeStoryText.replace("120", "130");
+        String third = JiraStoryParserTest.completeStoryText.replace("120", "140");
+
+        JiraStory first = cache.parse(JiraStoryParserTest.completeStoryText);
+        assertSame(first, cache.parse(new String(JiraStoryParserTest.completeStoryText)));
+        cache.parse(other);
+        cache.parse(third);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertNotSame(first, cache.parse(JiraStoryParserTest.completeStoryText));
+    }
+
+    @Test
+    @DisplayName("Should load unchanged stories from the cache directory in a new instance")
+    void shouldPersistEntriesAcrossInstances() {
+        JiraStory parsed = new CachingStoryParser(parser, 16, cacheDir).parse(JiraStoryParserTest.completeStoryText);
+
+        CachingStoryParser coldCache = new CachingStoryParser(parser, 16, cacheDir);
+        JiraStory loaded = coldCache.parse(JiraStoryParserTest.completeStoryText);
+
+        assertEquals(1, coldCache.getDiskHitCount());
+        assertEquals(0, coldCache.getMissCount());
+        assertEquals(parsed.getValueStatement().toString(), loaded.getValueStatement().toString());
+        assertEquals(parsed.getRequirements().get(2).getSchemas(), loaded.getRequirements().get(2).getSchemas());
+        assertEquals(parsed.getAcceptanceCriteria().get(0).getThenStatements(),
+                     loaded.getAcceptanceCriteria().get(0).getThenStatements());
+    }
+
+    @Test
+    @DisplayName("Should treat an entry with a corrupt length as a miss")
+    void shouldRejectCorruptEntryLength() throws IOException {
+        new CachingStoryParser(parser, 16, cacheDir).parse(JiraStoryParserTest.completeStoryText);
+        Path entry;
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            entry = files.collect(Collectors.toList()).get(0);
+        }
+        // After the version, the 32 byte digest and the value statement flag comes the persona's length
+        byte[] bytes = Files.readAllBytes(entry);
+        ByteBuffer.wrap(bytes).putInt(4 + 32 + 1, Integer.MAX_VALUE);
+        Files.write(entry, bytes);
+
+        CachingStoryParser coldCache = new CachingStoryParser(parser, 16, cacheDir);
+        JiraStory story = coldCache.parse(JiraStoryParserTest.completeStoryText);
+
+        assertEquals(0, coldCache.getDiskHitCount());
+        assertEquals(1, coldCache.getMissCount());
+        assertEquals("Chase Bank product owner", story.getValueStatement().getPersona());
+    }
+
+    @Test
+    @DisplayName("Should keep a story too large for StoryCodec out of the cache directory")
+    void shouldNotPersistOversizedStory() throws IOException {
+        String storyText = oversizedStoryText();
+        CachingStoryParser cache = new CachingStoryParser(parser, 16, cacheDir);
+
+        JiraStory story = cache.parse(storyText);
+        assertSame(story, cache.parse(storyText));
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(0, files.count());
+        }
+        assertThrows(IOException.class,
+            () -> StoryCodec.write(story, new DataOutputStream(OutputStream.nullOutputStream())));
+    }
+
+    /**
+     * A story whose one requirement is a byte longer than StoryCodec stores
+     */
+    static String oversizedStoryText() {
+        return "{panel:title=Value Statement}\n"
+            + "As a user, I want something, so that benefit.\n"
+            + "{panel}\n"
+            + "{panel:title=Requirements}\n"
+            + "1. " + "x".repeat(StoryCodec.MAX_STRING_BYTES + 1) + "\n"
+            + "{panel}\n";
+    }
+}
@@ -5,6 +5,9 @@ import org.junit.jupiter.api.DisplayName;
 
 import an.story.domain_model.JiraStory;
 import an.story.domain_model.Requirement;
+import an.story.domain_model.SymbolTable;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -102,4 +105,98 @@ public class RequirementTest extends JiraStoryParserTest{
             assertEquals("aoaApplicantDataCleansedErrored.avsc", 
                         story.getRequirements().get(0).getSchemas().get(0));
         }
+        
+        @Test
+        @DisplayName("Should match service keyword in any case but event keyword exactly")
+        void shouldMatchKeywordCaseLikeBefore() {
+            Requirement requirement = new Requirement(1,
+                "call the \"Fraud Check\" SERVICE, then the \"audit\" Service, " +
+                "skip the \"ignored\" Event and emit the \"fraudChecked\" event");
+            
+            assertEquals(List.of("Fraud Check", "audit"), requirement.getServices());
+            assertEquals(List.of("fraudChecked"), requirement.getEvents());
+            assertTrue(requirement.getSchemas().isEmpty());
+        }
+        
+        @Test
+        @DisplayName("Should only take word characters as event names")
+        void shouldOnlyTakeWordCharactersAsEventNames() {
+            Requirement requirement = new Requirement(1,
+                "update the AVRO Schema of the \"order created\" event and the \"order_created2\" event");
+            
+            assertTrue(requirement.getServices().isEmpty());
+            assertEquals(List.of("order_created2"), requirement.getEvents());
+            assertEquals(List.of("order_created2.avsc"), requirement.getSchemas());
+        }
+        
+        @Test
+        @DisplayName("Should extract entities lazily and only once")
+        void shouldMemoizeExtractedEntities() throws InterruptedException {
+            Requirement requirement = new Requirement(1,
+                "update the avro schema for the \"orderCreated\" event in the \"orders\" service");
+            
+            List<List<String>> seen = new java.util.concurrent.CopyOnWriteArrayList<>();
+            Thread[] readers = new Thread[4];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new Thread(() -> seen.add(requirement.getEvents()));
+                readers[i].start();
+            }
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            
+            for (List<String> events : seen) {
+                assertSame(requirement.getEvents(), events);
+            }
+            assertSame(requirement.getSchemas(), requirement.getSchemas());
+            assertEquals(List.of("orders"), requirement.getServices());
+        }
+
+        @Test
+        @DisplayName("Should share one instance per distinct name across requirements")
+        void shouldInternExtractedNames() {
+            Requirement first = new Requirement(1,
+                "the \"data cleanse\" service publishes the \"applicantCleansed\" event with an avro schema");
+            Requirement second = new Requirement(2,
+                new String("the \"data cleanse\" service consumes the \"applicantCleansed\" event with an avro schema"));
+            
+            assertSame(first.getServices().get(0), second.getServices().get(0));
+            assertSame(first.getEvents().get(0), second.getEvents().get(0));
+            assertSame(first.getSchemas().get(0), second.getSchemas().get(0));
+            
+            SymbolTable symbols = SymbolTable.shared();
+            int id = symbols.idOf("data cleanse");
+            assertTrue(id >= 0);
+            assertEquals(id, symbols.intern("data cleanse"));
+            assertSame(first.getServices().get(0), symbols.name(id));
+        }
+
+        @Test
+        @DisplayName("Should keep canonical names stable as the symbol table grows")
+        void shouldGrowSymbolTable() {
+            SymbolTable symbols = new SymbolTable();
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("name " + i, symbols.canonical("name " + i));
+            }
+            
+            assertEquals(1000, symbols.size());
+            assertEquals("name 999", symbols.name(symbols.idOf("name 999")));
+        }
+
+        @Test
+        @DisplayName("Should stop adding canonical names once the table is full")
+        void shouldBoundCanonicalNames() {
+            SymbolTable symbols = new SymbolTable(2);
+            String first = symbols.canonical(new String("data cleanse"));
+            symbols.canonical("audit");
+            String overflow = new String("client supplied");
+            String longName = "x".repeat(SymbolTable.MAX_CANONICAL_LENGTH + 1);
+            
+            assertSame(overflow, symbols.canonical(overflow));
+            assertSame(first, symbols.canonical("data cleanse"));
+            assertSame(longName, new SymbolTable().canonical(longName));
+            assertEquals(2, symbols.size());
+            assertEquals(-1, symbols.idOf("client supplied"));
+            assertEquals(2, symbols.intern("client supplied"));
+        }
     }
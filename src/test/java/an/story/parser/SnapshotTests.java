@@ -0,0 +1,92 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import an.story.domain_model.AcceptanceCriterion;
+import an.story.domain_model.JiraStory;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Story Snapshots")
+public class SnapshotTests extends JiraStoryParserTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should load a corpus snapshot equal to the parsed stories")
+    void shouldRoundTripCorpus() throws IOException {
+        JiraStory first = parser.reparse(null, JiraStoryParserTest.completeStoryText);
+        JiraStory second = parser.parse(JiraStoryParserTest.completeStoryText.replace("120", "130"));
+        Path file = dir.resolve("corpus.snapshot");
+
+        StorySnapshot.write(List.of(first, second), file);
+        List<JiraStory> loaded = StorySnapshot.read(file);
+
+        assertEquals(2, loaded.size());
+        assertEquals(second.getValueStatement().toString(), loaded.get(1).getValueStatement().toString());
+        assertEquals(first.getRequirements().get(2).getText(), loaded.get(0).getRequirements().get(2).getText());
+        assertEquals(first.getRequirements().get(2).getSchemas(), loaded.get(0).getRequirements().get(2).getSchemas());
+        AcceptanceCriterion criterion = first.getAcceptanceCriteria().get(0);
+        AcceptanceCriterion loadedCriterion = loaded.get(0).getAcceptanceCriteria().get(0);
+        assertEquals(criterion.getStepCount(), loadedCriterion.getStepCount());
+        assertEquals(criterion.getThenStatements(), loadedCriterion.getThenStatements());
+        assertArrayEquals(first.getPanelFingerprints().getRequirements(),
+                     loaded.get(0).getPanelFingerprints().getRequirements());
+    }
+
+    @Test
+    @DisplayName("Should refuse to write a snapshot it could not read back")
+    void shouldRejectOversizedStrings() throws IOException {
+        JiraStory story = parser.parse(JiraStoryParserTest.completeStoryText);
+        JiraStory oversized = parser.parse(ParseCacheTests.oversizedStoryText());
+        Path file = dir.resolve("corpus.snapshot");
+        StorySnapshot.write(List.of(story), file);
+
+        assertThrows(IOException.class, () -> StorySnapshot.write(List.of(story, oversized), file));
+
+        List<JiraStory> loaded = StorySnapshot.read(file);
+        assertEquals(1, loaded.size());
+        assertEquals(story.getRequirements().get(0).getText(), loaded.get(0).getRequirements().get(0).getText());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not snapshots")
+    void shouldRejectForeignFiles() throws IOException {
+        Path file = dir.resolve("story.txt");
+        Files.writeString(file, JiraStoryParserTest.completeStoryText);
+
+        assertThrows(IOException.class, () -> StorySnapshot.read(file));
+    }
+
+    @Test
+    @DisplayName("Should read UTF strings and lines from a buffer")
+    void shouldReadUtfAndLinesFromBuffer() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF("Data Cleanse \u00e9v\u00e9nement");
+            out.write("first\r\nsecond\nlast".getBytes(StandardCharsets.ISO_8859_1));
+        }
+        ByteBufferDataInput in = new ByteBufferDataInput(ByteBuffer.wrap(bytes.toByteArray()));
+
+        assertEquals("Data Cleanse \u00e9v\u00e9nement", in.readUTF());
+        assertEquals("first", in.readLine());
+        assertEquals("second", in.readLine());
+        assertEquals("last", in.readLine());
+        assertNull(in.readLine());
+    }
+}
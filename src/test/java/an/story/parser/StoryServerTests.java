@@ -0,0 +1,82 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import an.story.server.StoryServer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Story Server")
+public class StoryServerTests extends JiraStoryParserTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private StoryServer server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the parsed story, topology and feature as JSON")
+    void shouldParseStoriesOverHttp() throws Exception {
+        startServer(4, StoryServer.DEFAULT_MAX_BODY_BYTES);
+
+        HttpResponse<String> response = post(JiraStoryParserTest.completeStoryText);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        String json = response.body();
+        assertTrue(json.startsWith("{\"story\":{\"valueStatement\":{\"persona\":"));
+        assertTrue(json.contains("\"topology\":{\"services\":["));
+        assertTrue(json.contains("\"feature\":\"Feature: "));
+        assertTrue(json.contains("\"kind\":\"GIVEN\""));
+    }
+
+    @Test
+    @DisplayName("Should answer malformed, oversized and wrong-method requests with errors")
+    void shouldReportErrorsOverHttp() throws Exception {
+        startServer(4, 256);
+
+        HttpResponse<String> invalid = post("{panel:title=Value Statement}\nnot a value statement\n{panel}");
+        assertEquals(400, invalid.statusCode());
+        assertEquals("{\"error\":{\"reason\":\"INVALID_VALUE_STATEMENT\","
+            + "\"message\":\"Value statement does not match 'As a <persona>, I want <goal>, so that <benefit>'\","
+            + "\"panel\":\"VALUE_STATEMENT\",\"line\":2}}", invalid.body());
+
+        assertEquals(413, post(JiraStoryParserTest.completeStoryText).statusCode());
+
+        HttpResponse<String> get = client.send(request("/parse").GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+
+        HttpResponse<String> health = client.send(request("/health").GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, health.statusCode());
+        assertEquals("{\"status\":\"UP\",\"inFlight\":0,\"maxConcurrent\":4}", health.body());
+    }
+
+    private void startServer(int maxConcurrent, int maxBodyBytes) throws IOException {
+        server = new StoryServer(new InetSocketAddress("127.0.0.1", 0),
+            parser, maxConcurrent, maxBodyBytes);
+        server.start();
+    }
+
+    private HttpResponse<String> post(String storyText) throws IOException, InterruptedException {
+        HttpRequest request = request("/parse").POST(HttpRequest.BodyPublishers.ofString(storyText)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path));
+    }
+}
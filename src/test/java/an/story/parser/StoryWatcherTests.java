@@ -0,0 +1,170 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import an.story.gherkin_generator.StoryWatcher;
+import an.story.gherkin_generator.TestPackageWriter;
+import an.story.testdata.SyntheticStoryGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Story Watcher")
+public class StoryWatcherTests extends JiraStoryParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should regenerate only the stories that changed")
+    void shouldRegenerateOnlyChangedStories() throws Exception {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        SyntheticStoryGenerator.builder().seed(3).requirements(4).scenarios(2).build()
+            .writeStoryFiles(stories.resolve("team"), 5);
+        StoryWatcher watcher = new StoryWatcher(stories, new TestPackageWriter(output, "an.story.generated"), parser);
+
+        StoryWatcher.Update initial = watcher.generateAll();
+        assertEquals(5, initial.getRegenerated().size());
+        Path feature = output.resolve("resources/an/story/generated/team/story_00002/story-00002.feature");
+        assertTrue(Files.exists(feature));
+
+        Path edited = stories.resolve("team/story-00002.story");
+        Files.writeString(edited, Files.readString(edited).replace("Case 1", "Edited case"), StandardCharsets.UTF_8);
+        StoryWatcher.Update update = watcher.update(List.of(edited));
+        assertEquals(List.of(Paths.get("team/story-00002.story")), update.getRegenerated());
+        assertTrue(Files.readString(feature).contains("Edited case"));
+
+        Files.delete(edited);
+        StoryWatcher.Update removal = watcher.update(List.of(edited));
+        assertEquals(List.of(Paths.get("team/story-00002.story")), removal.getRemoved());
+        assertFalse(Files.exists(feature));
+        assertTrue(Files.exists(output.resolve("resources/an/story/generated/team/story_00001/story-00001.feature")));
+
+        Files.writeString(stories.resolve("team/broken.story"), "{panel:title=Value Statement}\nnope\n{panel}");
+        StoryWatcher.Update broken = watcher.update(List.of(stories.resolve("team/broken.story")));
+        assertEquals(1, broken.getFailed().size());
+        assertFalse(Files.exists(output.resolve("resources/an/story/generated/team/broken/broken.feature")));
+    }
+
+    @Test
+    @DisplayName("Should report a story that cannot be read as failed and carry on")
+    void shouldReportUnreadableStoriesAsFailed() throws Exception {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        SyntheticStoryGenerator.builder().seed(3).requirements(2).scenarios(1).build()
+            .writeStoryFiles(stories, 2);
+        StoryWatcher watcher = new StoryWatcher(stories, new TestPackageWriter(output, "an.story.generated"), parser);
+        watcher.generateAll();
+
+        // Not valid UTF-8, so reading it throws as a file locked or truncated mid-edit would
+        Path unreadable = stories.resolve("story-00000.story");
+        Files.write(unreadable, new byte[] {(byte) 0xC3, (byte) 0x28});
+        Path edited = stories.resolve("story-00001.story");
+        Files.writeString(edited, Files.readString(edited).replace("Case 1", "Edited case"), StandardCharsets.UTF_8);
+        StoryWatcher.Update update = watcher.update(List.of(unreadable, edited));
+
+        assertEquals(List.of(Paths.get("story-00000.story")), List.copyOf(update.getFailed().keySet()));
+        assertEquals(List.of(Paths.get("story-00001.story")), update.getRegenerated());
+    }
+
+    @Test
+    @DisplayName("Should keep other stories' step classes when a story with the same class name is deleted")
+    void shouldKeepStepClassesSharingANameWithADeletedStory() throws Exception {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        SyntheticStoryGenerator.builder().seed(3).requirements(4).scenarios(2).build()
+            .writeStoryFiles(stories.resolve("team"), 5);
+        StoryWatcher watcher = new StoryWatcher(stories, new TestPackageWriter(output, "an.story.generated"), parser);
+        watcher.generateAll();
+        List<Path> stepClasses = javaFiles(output);
+        assertEquals(5, stepClasses.size());
+        // Every synthetic story's goal gives the same class name
+        assertEquals(1, stepClasses.stream().map(Path::getFileName).distinct().count());
+
+        Path deleted = stories.resolve("team/story-00002.story");
+        Files.delete(deleted);
+        watcher.update(List.of(deleted));
+
+        List<Path> remaining = javaFiles(output);
+        assertEquals(4, remaining.size());
+        for (Path stepClass : stepClasses) {
+            assertEquals(!stepClass.toString().contains("story_00002"), remaining.contains(stepClass));
+        }
+    }
+
+    @Test
+    @DisplayName("Should regenerate a story renamed to a path mapping to its old package")
+    void shouldRegenerateStoryRenamedIntoItsOwnPackage() throws Exception {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        Path original = stories.resolve("Team/a-b.story");
+        Files.createDirectories(original.getParent());
+        Files.writeString(original, JiraStoryParserTest.completeStoryText);
+        StoryWatcher watcher = new StoryWatcher(stories, new TestPackageWriter(output, "com.acme.tests"), parser);
+        watcher.generateAll();
+
+        Path renamed = stories.resolve("team/a_b.story");
+        Files.createDirectories(renamed.getParent());
+        Files.move(original, renamed);
+        // The watch service may report the new path before the old one
+        StoryWatcher.Update update = watcher.update(List.of(renamed, original));
+
+        assertEquals(Map.of(), update.getFailed());
+        assertEquals(List.of(Paths.get("team/a_b.story")), update.getRegenerated());
+        assertEquals(List.of(Paths.get("Team/a-b.story")), update.getRemoved());
+    }
+
+    private static List<Path> javaFiles(Path output) throws Exception {
+        try (Stream<Path> files = Files.walk(output.resolve("java"))) {
+            return files.filter(path -> path.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should pick up file system changes while watching")
+    void shouldRegenerateWhileWatching() throws Exception {
+        Path stories = tempDir.resolve("stories");
+        Path output = tempDir.resolve("out");
+        Files.createDirectories(stories);
+        StoryWatcher watcher = new StoryWatcher(stories, new TestPackageWriter(output, "an.story.generated"), parser);
+        watcher.generateAll();
+
+        BlockingQueue<StoryWatcher.Update> updates = new LinkedBlockingQueue<>();
+        Thread watching = new Thread(() -> {
+            try {
+                watcher.watch(Duration.ofMillis(50), updates::add);
+            } catch (Exception e) {
+                fail(e.toString());
+            }
+        });
+        watching.start();
+        try {
+            // Give the watch service time to register before the first write
+            Thread.sleep(200);
+            Files.writeString(stories.resolve("new.story"), JiraStoryParserTest.completeStoryText);
+
+            StoryWatcher.Update update = updates.poll(10, TimeUnit.SECONDS);
+            assertNotNull(update, "no update within 10 seconds");
+            assertEquals(List.of(Paths.get("new.story")), update.getRegenerated());
+            assertTrue(Files.exists(output.resolve("resources/an/story/generated/_new/new.feature")));
+        } finally {
+            watcher.close();
+            watching.join(5000);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import an.story.domain_model.JiraStory;
+import an.story.gherkin_generator.GherkinTestGenerator;
+import an.story.gherkin_generator.command.GenerateFeatureFileFromStoryCommand;
+import an.story.gherkin_generator.command.GenerateStepDefinitionsCommand;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Streaming Generation")
+public class StreamingGenerationTests extends JiraStoryParserTest {
+
+    private final GherkinTestGenerator generator = new GherkinTestGenerator();
+
+    @Test
+    @DisplayName("Should stream the same feature file and step definitions as execute")
+    void shouldStreamSameOutputAsExecute() throws IOException {
+        JiraStory story = parser.parse(JiraStoryParserTest.completeStoryText);
+        StringWriter feature = new StringWriter();
+        StringWriter steps = new StringWriter();
+
+        generator.writeFeatureFile(story, feature);
+        generator.writeStepDefinitions(story, "com.acme.tests", steps);
+
+        assertEquals(new GenerateFeatureFileFromStoryCommand(story).execute(), feature.toString());
+        assertEquals(new GenerateStepDefinitionsCommand(story, "com.acme.tests").execute(), steps.toString());
+        assertTrue(feature.toString().contains("Scenario: User age is valid"));
+    }
+
+    @Test
+    @DisplayName("Should propagate an IOException from the Appendable")
+    void shouldPropagateAppendableFailure() {
+        JiraStory story = parser.parse(JiraStoryParserTest.completeStoryText);
+        int featureLength = generator.generateFeatureFileFromStory(story).length();
+
+        // Fails midway, inside the scenario commands the feature is composed of
+        IOException failure = assertThrows(IOException.class,
+            () -> generator.writeFeatureFile(story, new FailingWriter(featureLength / 2)));
+        assertEquals("disk full", failure.getMessage());
+        assertThrows(IOException.class,
+            () -> generator.writeStepDefinitions(story, "com.acme.tests", new FailingWriter(0)));
+    }
+
+    /**
+     * Accepts the given number of characters, then fails every write
+     */
+    private static final class FailingWriter extends Writer {
+        private int remaining;
+
+        FailingWriter(int capacity) {
+            this.remaining = capacity;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            if (length > remaining) {
+                throw new IOException("disk full");
+            }
+            remaining -= length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
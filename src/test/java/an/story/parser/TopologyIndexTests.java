@@ -0,0 +1,68 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+
+import an.story.topology.TopologyIndex;
+import an.story.topology.TopologyIndex.RequirementRef;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Topology Index")
+public class TopologyIndexTests extends JiraStoryParserTest {
+
+    private static final String VALUE_STATEMENT = "{panel:title=Value Statement}\n" +
+        "As a clerk, I want clean data, so that reports are right.\n" +
+        "{panel}\n";
+
+    private String story(String... requirements) {
+        StringBuilder text = new StringBuilder(VALUE_STATEMENT).append("{panel:title=Requirements}\n");
+        for (int i = 0; i < requirements.length; i++) {
+            text.append(i + 1).append(". ").append(requirements[i]).append('\n');
+        }
+        return text.append("{panel}").toString();
+    }
+
+    @Test
+    @DisplayName("Should find stories and requirements by service, event and schema")
+    void shouldAnswerLookupsAcrossStories() {
+        TopologyIndex index = new TopologyIndex();
+        index.put("AOA-1", parser.parse(story(
+            "keep an audit log",
+            "the \"data cleanse\" service publishes the \"applicantCleansed\" event with an avro schema")));
+        index.put("AOA-2", parser.parse(story(
+            "the \"data cleanse\" service consumes the \"applicantReceived\" event")));
+        index.put("AOA-3", parser.parse(story("nothing to see here")));
+
+        assertEquals(List.of("AOA-1", "AOA-2"), index.storiesWithService("data cleanse"));
+        assertEquals(List.of("AOA-1"), index.storiesWithEvent("applicantCleansed"));
+        assertEquals(List.of("AOA-1"), index.storiesWithSchema("applicantCleansed.avsc"));
+        assertEquals(List.of(new RequirementRef("AOA-1", 2), new RequirementRef("AOA-2", 1)),
+                     index.requirementsWithService("data cleanse"));
+        assertEquals(2, index.serviceFrequency("data cleanse"));
+        assertTrue(index.storiesWithService("never mentioned anywhere").isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Should update postings when stories change or disappear")
+    void shouldMaintainIndexIncrementally() {
+        TopologyIndex index = new TopologyIndex();
+        index.put("AOA-1", parser.parse(story("the \"data cleanse\" service runs")));
+        index.put("AOA-2", parser.parse(story("the \"data cleanse\" service runs")));
+
+        index.put("AOA-1", parser.parse(story("the \"address lookup\" service runs")));
+        assertEquals(List.of("AOA-2"), index.storiesWithService("data cleanse"));
+        assertEquals(List.of("AOA-1"), index.storiesWithService("address lookup"));
+
+        assertTrue(index.remove("AOA-2"));
+        assertFalse(index.remove("AOA-2"));
+        assertTrue(index.storiesWithService("data cleanse").isEmpty());
+        assertTrue(index.requirementsWithService("data cleanse").isEmpty());
+
+        index.put("AOA-3", parser.parse(story("the \"data cleanse\" service runs")));
+        assertEquals(List.of("AOA-3"), index.storiesWithService("data cleanse"));
+        assertEquals(List.of(new RequirementRef("AOA-1", 1)), index.requirementsWithService("address lookup"));
+    }
+}
@@ -0,0 +1,69 @@
+package an.story.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import an.story.domain_model.ServiceTopology;
+import an.story.domain_model.StepKind;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Visitor Parsing")
+public class VisitorTests extends JiraStoryParserTest {
+
+    @Test
+    @DisplayName("Should report scenarios and steps with And resolved to its kind")
+    void shouldReportScenariosAndSteps() {
+        String storyText = "{panel:title=Value Statement}\n" +
+            "As a user, I want something, so that benefit.\n" +
+            "{panel}\n" +
+            "{panel:title=Acceptance Criteria}\n" +
+            "Scenario: Multiple conditions\n" +
+            "Given a precondition\n" +
+            "And another precondition\n" +
+            "When an action occurs\n" +
+            "Then an outcome happens\n" +
+            "And another outcome happens\n" +
+            "{panel}";
+        List<String> events = new ArrayList<>();
+
+        parser.parse(storyText, new JiraStoryVisitor() {
+            @Override
+            public void onScenario(String name) {
+                events.add("Scenario " + name);
+            }
+
+            @Override
+            public void onStep(StepKind kind, String text) {
+                events.add(kind.getKeyword() + " " + text);
+            }
+        });
+
+        assertEquals(List.of(
+            "Scenario Multiple conditions",
+            "Given a precondition",
+            "Given another precondition",
+            "When an action occurs",
+            "Then an outcome happens",
+            "Then another outcome happens"), events);
+    }
+
+    @Test
+    @DisplayName("Should skip panels the visitor does not enter")
+    void shouldSkipPanelsNotEntered() {
+        String storyText = "{panel:title=Value Statement}\n" +
+            "This is not a valid value statement format\n" +
+            "{panel}\n" +
+            "{panel:title=Requirements}\n" +
+            "1. update the \"data cleanse\" service\n" +
+            "2. trigger the \"orderCreated\" event\n" +
+            "{panel}";
+
+        ServiceTopology topology = parser.parseTopology(storyText);
+
+        assertEquals(List.of("data cleanse"), topology.getServices());
+        assertEquals(List.of("orderCreated"), topology.getEvents());
+    }
+}